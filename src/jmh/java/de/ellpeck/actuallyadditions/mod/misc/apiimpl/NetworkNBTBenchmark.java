@@ -0,0 +1,112 @@
+/*
+ * This file ("NetworkNBTBenchmark.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.misc.apiimpl;
+
+import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
+import de.ellpeck.actuallyadditions.api.laser.LaserType;
+import de.ellpeck.actuallyadditions.api.laser.Network;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving and loading a laser network in the packed format with the list of compounds that was used before.
+ * The compressed size of both formats, like it ends up in the world data file, is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkNBTBenchmark{
+
+    @Param({"100", "1000", "10000"})
+    public int pairCount;
+
+    private Network network;
+    private NBTTagCompound packed;
+    private NBTTagCompound legacy;
+
+    @Setup
+    public void setup() throws IOException{
+        this.network = new Network();
+
+        //Relays spread over a large area, like a base with many machines connected in a chain
+        LaserType[] types = LaserType.values();
+        BlockPos last = new BlockPos(-5000, 40, 3000);
+        for(int i = 0; i < this.pairCount; i++){
+            BlockPos next = last.add(i%7-3, i%5-2, 9);
+            this.network.connections.add(new ConnectionPair(last, next, types[i%types.length], i%10 == 0));
+            last = next;
+        }
+
+        this.packed = LaserRelayConnectionHandler.writeNetworkToNBT(this.network);
+        this.legacy = toLegacyNBT(this.network);
+
+        System.out.println(this.pairCount+" pairs compressed: "+getCompressedSize(this.legacy)+" bytes in the legacy format, "+getCompressedSize(this.packed)+" bytes packed");
+    }
+
+    private static NBTTagCompound toLegacyNBT(Network network){
+        NBTTagList list = new NBTTagList();
+        for(IConnectionPair pair : network.connections){
+            NBTTagCompound tag = new NBTTagCompound();
+            pair.writeToNBT(tag);
+            list.appendTag(tag);
+        }
+
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setTag("Network", list);
+        return compound;
+    }
+
+    private static int getCompressedSize(NBTTagCompound compound) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressedStreamTools.writeCompressed(compound, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public NBTTagCompound writePacked(){
+        return LaserRelayConnectionHandler.writeNetworkToNBT(this.network);
+    }
+
+    @Benchmark
+    public NBTTagCompound writeLegacy(){
+        return toLegacyNBT(this.network);
+    }
+
+    @Benchmark
+    public Network readPacked(){
+        return LaserRelayConnectionHandler.readNetworkFromNBT(this.packed);
+    }
+
+    @Benchmark
+    public Network readLegacy(){
+        return LaserRelayConnectionHandler.readNetworkFromNBT(this.legacy);
+    }
+}
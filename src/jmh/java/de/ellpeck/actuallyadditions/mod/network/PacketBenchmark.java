@@ -0,0 +1,223 @@
+/*
+ * This file ("PacketBenchmark.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.network.LaserEffectDispatcher.LaserEffect;
+import de.ellpeck.actuallyadditions.mod.tile.SyncInterest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the messages that used to be sent as NBT through PacketServerToClient and PacketClientToServer
+ * with the binary packets that replaced them. Encoding and decoding are measured per packet, and the
+ * encoded size of both variants (readableBytes of the written buffer) is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBenchmark{
+
+    private static final BlockPos POS = new BlockPos(-1234, 64, 5678);
+    private static final int PARTICLES = 16;
+
+    @Param({"laser", "laserParticles", "tileSync", "guiButton", "guiNumber"})
+    public String packet;
+
+    private IMessage nbtPacket;
+    private IMessage binaryPacket;
+    private Supplier<IMessage> nbtFactory;
+    private Supplier<IMessage> binaryFactory;
+
+    private ByteBuf writeBuffer;
+    private ByteBuf nbtBytes;
+    private ByteBuf binaryBytes;
+
+    @Setup
+    public void setup(){
+        switch(this.packet){
+            case "laser":
+                this.createLaser();
+                break;
+            case "laserParticles":
+                this.createLaserParticles();
+                break;
+            case "tileSync":
+                this.createTileSync();
+                break;
+            case "guiButton":
+                this.createGuiButton();
+                break;
+            case "guiNumber":
+                this.createGuiNumber();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown packet "+this.packet);
+        }
+
+        this.writeBuffer = Unpooled.buffer(1024);
+        this.nbtBytes = Unpooled.buffer();
+        this.nbtPacket.toBytes(this.nbtBytes);
+        this.binaryBytes = Unpooled.buffer();
+        this.binaryPacket.toBytes(this.binaryBytes);
+
+        System.out.println(this.packet+" encoded size: "+this.nbtBytes.readableBytes()+" bytes as NBT, "+this.binaryBytes.readableBytes()+" bytes as binary");
+    }
+
+    @TearDown
+    public void tearDown(){
+        this.writeBuffer.release();
+        this.nbtBytes.release();
+        this.binaryBytes.release();
+    }
+
+    private void createLaser(){
+        float[] color = {0.5F, 0.25F, 1F};
+
+        NBTTagCompound data = new NBTTagCompound();
+        data.setDouble("StartX", 10.5);
+        data.setDouble("StartY", 64.5);
+        data.setDouble("StartZ", -20.5);
+        data.setDouble("EndX", 18.5);
+        data.setDouble("EndY", 70.5);
+        data.setDouble("EndZ", -12.5);
+        data.setFloat("Color1", color[0]);
+        data.setFloat("Color2", color[1]);
+        data.setFloat("Color3", color[2]);
+        data.setDouble("RotationTime", 20);
+        data.setFloat("Size", 0.05F);
+        data.setInteger("MaxAge", 40);
+        data.setFloat("Alpha", 0.8F);
+        this.nbtPacket = new PacketServerToClient(data, PacketHandler.LASER_HANDLER);
+        this.nbtFactory = PacketServerToClient::new;
+
+        LaserEffect effect = new LaserEffect(10.5, 64.5, -20.5, 18.5, 70.5, -12.5, color, 40, 20, 0.05F, 0.8F);
+        this.binaryPacket = new PacketLaser(Collections.singletonList(effect));
+        this.binaryFactory = PacketLaser::new;
+    }
+
+    private void createLaserParticles(){
+        int[] particles = new int[PARTICLES*LaserParticleBatcher.INTS_PER_PARTICLE];
+        for(int i = 0; i < particles.length; i++){
+            particles[i] = i*31;
+        }
+
+        NBTTagCompound data = new NBTTagCompound();
+        data.setIntArray("Particles", particles);
+        this.nbtPacket = new PacketServerToClient(data, PacketHandler.LASER_PARTICLE_HANDLER);
+        this.nbtFactory = PacketServerToClient::new;
+
+        this.binaryPacket = new PacketLaserParticles(particles);
+        this.binaryFactory = PacketLaserParticles::new;
+    }
+
+    private void createTileSync(){
+        //Roughly what a powered machine syncs while it works
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("Energy", 123456);
+        compound.setInteger("ProcessTime", 42);
+        compound.setBoolean("IsRedstonePowered", false);
+
+        NBTTagCompound data = new NBTTagCompound();
+        data.setTag("Data", compound);
+        data.setBoolean("OnlyChanges", true);
+        data.setInteger("X", POS.getX());
+        data.setInteger("Y", POS.getY());
+        data.setInteger("Z", POS.getZ());
+        this.nbtPacket = new PacketServerToClient(data, PacketHandler.TILE_ENTITY_HANDLER);
+        this.nbtFactory = PacketServerToClient::new;
+
+        this.binaryPacket = new PacketTileSync(POS, true, SyncInterest.WORLD, compound);
+        this.binaryFactory = PacketTileSync::new;
+    }
+
+    private void createGuiButton(){
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("X", POS.getX());
+        compound.setInteger("Y", POS.getY());
+        compound.setInteger("Z", POS.getZ());
+        compound.setInteger("WorldID", 0);
+        compound.setInteger("PlayerID", 4711);
+        compound.setInteger("ButtonID", 3);
+        this.nbtPacket = new PacketClientToServer(compound, PacketHandler.GUI_BUTTON_TO_TILE_HANDLER);
+        this.nbtFactory = PacketClientToServer::new;
+
+        this.binaryPacket = new PacketGuiButton(POS, 3);
+        this.binaryFactory = PacketGuiButton::new;
+    }
+
+    private void createGuiNumber(){
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("X", POS.getX());
+        compound.setInteger("Y", POS.getY());
+        compound.setInteger("Z", POS.getZ());
+        compound.setInteger("WorldID", 0);
+        compound.setInteger("PlayerID", 4711);
+        compound.setInteger("NumberID", 1);
+        compound.setDouble("Number", 250);
+        this.nbtPacket = new PacketClientToServer(compound, PacketHandler.GUI_NUMBER_TO_TILE_HANDLER);
+        this.nbtFactory = PacketClientToServer::new;
+
+        this.binaryPacket = new PacketGuiNumber(POS, 1, 250);
+        this.binaryFactory = PacketGuiNumber::new;
+    }
+
+    @Benchmark
+    public int encodeNbt(){
+        this.writeBuffer.clear();
+        this.nbtPacket.toBytes(this.writeBuffer);
+        return this.writeBuffer.readableBytes();
+    }
+
+    @Benchmark
+    public int encodeBinary(){
+        this.writeBuffer.clear();
+        this.binaryPacket.toBytes(this.writeBuffer);
+        return this.writeBuffer.readableBytes();
+    }
+
+    @Benchmark
+    public IMessage decodeNbt(){
+        this.nbtBytes.readerIndex(0);
+        IMessage message = this.nbtFactory.get();
+        message.fromBytes(this.nbtBytes);
+        return message;
+    }
+
+    @Benchmark
+    public IMessage decodeBinary(){
+        this.binaryBytes.readerIndex(0);
+        IMessage message = this.binaryFactory.get();
+        message.fromBytes(this.binaryBytes);
+        return message;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file ("BenchmarkItems.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in items for the benchmarks. Only the vanilla registries get set up, so the vanilla items
+ * are combined with different metadata to get as many distinct stacks as the benchmarks need.
+ */
+public final class BenchmarkItems{
+
+    private static List<Item> items;
+
+    public static synchronized void init(){
+        if(items == null){
+            Bootstrap.register();
+
+            items = new ArrayList<>();
+            for(Item item : Item.REGISTRY){
+                if(item != Items.AIR){
+                    items.add(item);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a new stack that is different from the stacks of all other indices
+     */
+    public static ItemStack stack(int index){
+        return new ItemStack(items.get(index%items.size()), 1, index/items.size());
+    }
+}
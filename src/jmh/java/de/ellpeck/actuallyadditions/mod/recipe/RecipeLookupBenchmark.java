@@ -0,0 +1,178 @@
+/*
+ * This file ("RecipeLookupBenchmark.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
+import de.ellpeck.actuallyadditions.api.internal.IAtomicReconstructor;
+import de.ellpeck.actuallyadditions.api.lens.Lens;
+import de.ellpeck.actuallyadditions.api.recipe.CompostRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.CrusherRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.EmpowererRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.LensConversionRecipe;
+import de.ellpeck.actuallyadditions.mod.items.lens.LensRecipeHandler;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityCompost;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityEmpowerer;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the recipe lookups of the machines with differently sized recipe lists.
+ * Every lookup is done once for an input that has a recipe and once for one that doesn't.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeLookupBenchmark{
+
+    //Far enough away from the recipe inputs that they never collide
+    private static final int MODIFIER_OFFSET = 100000;
+
+    private static final Lens LENS = new BenchmarkLens();
+    private static final Lens OTHER_LENS = new BenchmarkLens();
+
+    @Param({"10", "100", "1000", "10000"})
+    public int recipeCount;
+
+    private ItemStack hit;
+    private ItemStack miss;
+    private ItemStack[] modifiers;
+
+    @Setup
+    public void setup(){
+        BenchmarkItems.init();
+
+        ActuallyAdditionsAPI.CRUSHER_RECIPES.clear();
+        ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES.clear();
+        ActuallyAdditionsAPI.EMPOWERER_RECIPES.clear();
+        ActuallyAdditionsAPI.COMPOST_RECIPES.clear();
+
+        this.modifiers = new ItemStack[4];
+        Ingredient[] modifierIngredients = new Ingredient[this.modifiers.length];
+        for(int i = 0; i < this.modifiers.length; i++){
+            this.modifiers[i] = BenchmarkItems.stack(MODIFIER_OFFSET+i);
+            modifierIngredients[i] = Ingredient.fromStacks(this.modifiers[i]);
+        }
+
+        IBlockState display = Blocks.DIRT.getDefaultState();
+        for(int i = 0; i < this.recipeCount; i++){
+            Ingredient input = Ingredient.fromStacks(BenchmarkItems.stack(i));
+            ItemStack output = BenchmarkItems.stack(MODIFIER_OFFSET+this.modifiers.length+i);
+
+            ActuallyAdditionsAPI.CRUSHER_RECIPES.add(new CrusherRecipe(input, output, ItemStack.EMPTY, 0));
+            ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES.add(new LensConversionRecipe(input, output, 1000, i%2 == 0 ? LENS : OTHER_LENS));
+            ActuallyAdditionsAPI.EMPOWERER_RECIPES.add(new EmpowererRecipe(input, output, modifierIngredients[0], modifierIngredients[1], modifierIngredients[2], modifierIngredients[3], 1000, 100, new float[]{1F, 1F, 1F}));
+            ActuallyAdditionsAPI.COMPOST_RECIPES.add(new CompostRecipe(input, display, output, display));
+        }
+
+        //An even index, so that the lens recipe for it is one of LENS
+        this.hit = BenchmarkItems.stack(this.recipeCount/2/2*2);
+        this.miss = BenchmarkItems.stack(this.recipeCount);
+    }
+
+    @Benchmark
+    public CrusherRecipe crusherHit(){
+        return CrusherRecipeRegistry.getRecipeFromInput(this.hit);
+    }
+
+    @Benchmark
+    public CrusherRecipe crusherMiss(){
+        return CrusherRecipeRegistry.getRecipeFromInput(this.miss);
+    }
+
+    //Without the lookup cache in front of the index
+    @Benchmark
+    public CrusherRecipe crusherIndexHit(){
+        return RecipeIndexes.CRUSHER.find(this.hit, CrusherRecipe::matches);
+    }
+
+    @Benchmark
+    public CrusherRecipe crusherIndexMiss(){
+        return RecipeIndexes.CRUSHER.find(this.miss, CrusherRecipe::matches);
+    }
+
+    //Going through the whole list like before the index, to compare with
+    @Benchmark
+    public CrusherRecipe crusherLinearHit(){
+        for(CrusherRecipe recipe : ActuallyAdditionsAPI.CRUSHER_RECIPES){
+            if(recipe.matches(this.hit)){
+                return recipe;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public LensConversionRecipe lensHit(){
+        return LensRecipeHandler.findMatchingRecipe(this.hit, LENS);
+    }
+
+    @Benchmark
+    public LensConversionRecipe lensMiss(){
+        return LensRecipeHandler.findMatchingRecipe(this.miss, LENS);
+    }
+
+    @Benchmark
+    public EmpowererRecipe empowererHit(){
+        return TileEntityEmpowerer.findMatchingRecipe(this.hit, this.modifiers[3], this.modifiers[1], this.modifiers[2], this.modifiers[0]);
+    }
+
+    @Benchmark
+    public EmpowererRecipe empowererMiss(){
+        return TileEntityEmpowerer.findMatchingRecipe(this.miss, this.modifiers[3], this.modifiers[1], this.modifiers[2], this.modifiers[0]);
+    }
+
+    @Benchmark
+    public CompostRecipe compostHit(){
+        return TileEntityCompost.getRecipeForInput(this.hit);
+    }
+
+    @Benchmark
+    public CompostRecipe compostMiss(){
+        return TileEntityCompost.getRecipeForInput(this.miss);
+    }
+
+    private static class BenchmarkLens extends Lens{
+
+        @Override
+        public boolean invoke(IBlockState hitState, BlockPos hitBlock, IAtomicReconstructor tile){
+            return false;
+        }
+
+        @Override
+        public float[] getColor(){
+            return new float[]{1F, 1F, 1F};
+        }
+
+        @Override
+        public int getDistance(){
+            return 10;
+        }
+    }
+}
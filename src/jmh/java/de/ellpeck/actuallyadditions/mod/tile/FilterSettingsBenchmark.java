@@ -0,0 +1,72 @@
+/*
+ * This file ("FilterSettingsBenchmark.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.tile;
+
+import de.ellpeck.actuallyadditions.mod.inventory.ContainerFilter;
+import de.ellpeck.actuallyadditions.mod.recipe.BenchmarkItems;
+import de.ellpeck.actuallyadditions.mod.util.ItemStackHandlerAA;
+import net.minecraft.item.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking a stack against a filter with a differing amount of filled slots,
+ * for a stack that is in the last filled slot and for one that isn't in the filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterSettingsBenchmark{
+
+    @Param({"1", "12", "24"})
+    public int filledSlots;
+
+    private ItemStackHandlerAA filter;
+    private ItemStack hit;
+    private ItemStack miss;
+
+    @Setup
+    public void setup(){
+        BenchmarkItems.init();
+
+        this.filter = new ItemStackHandlerAA(ContainerFilter.SLOT_AMOUNT);
+        for(int i = 0; i < this.filledSlots; i++){
+            this.filter.setStackInSlot(i, BenchmarkItems.stack(i));
+        }
+
+        this.hit = BenchmarkItems.stack(this.filledSlots-1);
+        this.miss = BenchmarkItems.stack(this.filledSlots);
+    }
+
+    @Benchmark
+    public boolean checkHit(){
+        return FilterSettings.check(this.hit, this.filter, true, true, true, false, 0);
+    }
+
+    @Benchmark
+    public boolean checkMiss(){
+        return FilterSettings.check(this.miss, this.filter, true, true, true, false, 0);
+    }
+}
@@ -31,6 +31,7 @@ import de.ellpeck.actuallyadditions.api.recipe.EmpowererRecipe;
 import de.ellpeck.actuallyadditions.api.recipe.IColorLensChanger;
 import de.ellpeck.actuallyadditions.api.recipe.LensConversionRecipe;
 import de.ellpeck.actuallyadditions.api.recipe.OilGenRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.RecipeList;
 import de.ellpeck.actuallyadditions.api.recipe.TreasureChestLoot;
 import de.ellpeck.actuallyadditions.api.recipe.WeightedOre;
 import net.minecraft.block.Block;
@@ -45,26 +46,26 @@ public final class ActuallyAdditionsAPI{
     public static final String API_ID = MOD_ID+"api";
     public static final String API_VERSION = "34";
 
-    public static final List<CrusherRecipe> CRUSHER_RECIPES = new ArrayList<>();
-    public static final List<BallOfFurReturn> BALL_OF_FUR_RETURN_ITEMS = new ArrayList<>();
-    public static final List<TreasureChestLoot> TREASURE_CHEST_LOOT = new ArrayList<>();
-    public static final List<LensConversionRecipe> RECONSTRUCTOR_LENS_CONVERSION_RECIPES = new ArrayList<>();
-    public static final List<EmpowererRecipe> EMPOWERER_RECIPES = new ArrayList<>();
+    public static final List<CrusherRecipe> CRUSHER_RECIPES = new RecipeList<>();
+    public static final List<BallOfFurReturn> BALL_OF_FUR_RETURN_ITEMS = new RecipeList<>();
+    public static final List<TreasureChestLoot> TREASURE_CHEST_LOOT = new RecipeList<>();
+    public static final List<LensConversionRecipe> RECONSTRUCTOR_LENS_CONVERSION_RECIPES = new RecipeList<>();
+    public static final List<EmpowererRecipe> EMPOWERER_RECIPES = new RecipeList<>();
     public static final Map<Item, IColorLensChanger> RECONSTRUCTOR_LENS_COLOR_CHANGERS = new HashMap<>();
     /**
      * Farmer behaviors are sorted when first accessed, this will not be done until after loading, but do not add behaviors at runtime.
      */
     public static final List<IFarmerBehavior> FARMER_BEHAVIORS = new ArrayList<>();
-    public static final List<CoffeeIngredient> COFFEE_MACHINE_INGREDIENTS = new ArrayList<>();
-    public static final List<CompostRecipe> COMPOST_RECIPES = new ArrayList<>();
-    public static final List<OilGenRecipe> OIL_GENERATOR_RECIPES = new ArrayList<>();
+    public static final List<CoffeeIngredient> COFFEE_MACHINE_INGREDIENTS = new RecipeList<>();
+    public static final List<CompostRecipe> COMPOST_RECIPES = new RecipeList<>();
+    public static final List<OilGenRecipe> OIL_GENERATOR_RECIPES = new RecipeList<>();
     public static final List<IBookletEntry> BOOKLET_ENTRIES = new ArrayList<>();
     //This is added to automatically, you don't need to add anything to this list
     public static final List<IBookletChapter> ALL_CHAPTERS = new ArrayList<>();
     //This is added to automatically, you don't need to add anything to this list
     public static final List<IBookletPage> BOOKLET_PAGES_WITH_ITEM_OR_FLUID_DATA = new ArrayList<>();
-    public static final List<WeightedOre> STONE_ORES = new ArrayList<>();
-    public static final List<WeightedOre> NETHERRACK_ORES = new ArrayList<>();
+    public static final List<WeightedOre> STONE_ORES = new RecipeList<>();
+    public static final List<WeightedOre> NETHERRACK_ORES = new RecipeList<>();
 
     /**
      * Use this to handle things that aren't based in the API itself
@@ -0,0 +1,35 @@
+/*
+ * This file ("RecipeList.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.api.recipe;
+
+import java.util.ArrayList;
+
+/**
+ * A normal list that exposes how often it has been changed.
+ * This is used internally to know when lookup tables built from a recipe list need to be rebuilt,
+ * so you can just keep using the recipe lists in ActuallyAdditionsAPI like any other list.
+ */
+public class RecipeList<T> extends ArrayList<T>{
+
+    //ArrayList doesn't count replacing an element as a change, and bumping modCount for it would break iterators that replace elements
+    private int replacements;
+
+    @Override
+    public T set(int index, T element){
+        T previous = super.set(index, element);
+        this.replacements++;
+        return previous;
+    }
+
+    public int getModCount(){
+        return this.modCount+this.replacements;
+    }
+}
@@ -30,15 +30,20 @@ import de.ellpeck.actuallyadditions.mod.items.lens.Lenses;
 import de.ellpeck.actuallyadditions.mod.material.InitArmorMaterials;
 import de.ellpeck.actuallyadditions.mod.material.InitToolMaterials;
 import de.ellpeck.actuallyadditions.mod.misc.BannerHelper;
+import de.ellpeck.actuallyadditions.mod.misc.CommandActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.LaserRelayConnectionHandler;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.MethodHandler;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
 import de.ellpeck.actuallyadditions.mod.proxy.IProxy;
 import de.ellpeck.actuallyadditions.mod.recipe.EmpowererHandler;
 import de.ellpeck.actuallyadditions.mod.recipe.HairyBallHandler;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.recipe.TreasureChestHandler;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelayEnergy;
 import de.ellpeck.actuallyadditions.mod.update.UpdateChecker;
+import de.ellpeck.actuallyadditions.mod.util.PhaseTimer;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.compat.CompatUtil;
 import net.minecraft.launchwrapper.Launch;
 import net.minecraft.server.MinecraftServer;
@@ -55,6 +60,7 @@ import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.event.FMLServerStoppedEvent;
 
 @Mod(modid = ActuallyAdditions.MODID, name = ActuallyAdditions.NAME, version = ActuallyAdditions.VERSION, guiFactory = ActuallyAdditions.GUIFACTORY, dependencies = ActuallyAdditions.DEPS)
@@ -129,14 +135,14 @@ public class ActuallyAdditions {
         ActuallyAdditions.LOGGER.info("Starting PostInitialization Phase...");
 
         ItemCoffee.initIngredients();
-        CrusherCrafting.init();
+        PhaseTimer.run("Crusher Recipes", CrusherCrafting::init);
         HairyBallHandler.init();
         TreasureChestHandler.init();
-        LensRecipeHandler.init();
-        EmpowererHandler.init();
+        PhaseTimer.run("Lens Recipes", LensRecipeHandler::init);
+        PhaseTimer.run("Empowerer Recipes", EmpowererHandler::init);
         LensMining.init();
 
-        InitBooklet.postInit();
+        PhaseTimer.run("Booklet", InitBooklet::postInit);
         PROXY.postInit(event);
 
         ConfigurationHandler.redefineConfigs();
@@ -144,6 +150,11 @@ public class ActuallyAdditions {
         ActuallyAdditions.LOGGER.info("PostInitialization Finished.");
     }
 
+    @EventHandler
+    public void serverStarting(FMLServerStartingEvent event) {
+        event.registerServerCommand(new CommandActuallyAdditions());
+    }
+
     @EventHandler
     public void serverStarted(FMLServerStartedEvent event) {
         MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
@@ -158,5 +169,10 @@ public class ActuallyAdditions {
     @EventHandler
     public void serverStopped(FMLServerStoppedEvent event) {
         WorldData.clear();
+        TileEntityBase.clearQueuedUpdates();
+        TileEntityLaserRelayEnergy.clearBufferedEnergy();
+        TickProfiler.stop();
+        RecipeIndexes.logStatistics();
+        TileEntityBase.logUpdateStatistics();
     }
 }
@@ -7,6 +7,8 @@ import de.ellpeck.actuallyadditions.mod.gen.village.InitVillager;
 import de.ellpeck.actuallyadditions.mod.items.InitItems;
 import de.ellpeck.actuallyadditions.mod.misc.SoundHandler;
 import de.ellpeck.actuallyadditions.mod.ore.InitOreDict;
+import de.ellpeck.actuallyadditions.mod.util.PhaseTimer;
+import de.ellpeck.actuallyadditions.mod.util.crafting.RecipeHelper;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
 import net.minecraft.item.crafting.IRecipe;
@@ -58,12 +60,13 @@ public class RegistryHandler{
 
     @SubscribeEvent
     public void onCraftingRegistry(Register<IRecipe> event){
-        InitCrafting.init();
+        //Recipes are declared first, then all of their ingredients are resolved and they are registered at once
+        PhaseTimer.run("Crafting Recipes", InitCrafting::init);
+        PhaseTimer.run("Crafting Recipe Ingredients", RecipeHelper::resolveDeclaredRecipes);
+        PhaseTimer.run("Crafting Recipe Registration", () -> event.getRegistry().registerAll(RECIPES_TO_REGISTER.toArray(new IRecipe[RECIPES_TO_REGISTER.size()])));
 
-        for(IRecipe recipe : RECIPES_TO_REGISTER){
-            event.getRegistry().register(recipe);
-        }
         RECIPES_TO_REGISTER.clear();
+        RecipeHelper.clearIngredientCache();
     }
 
     @SubscribeEvent
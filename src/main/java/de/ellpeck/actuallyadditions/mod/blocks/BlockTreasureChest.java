@@ -12,9 +12,9 @@ package de.ellpeck.actuallyadditions.mod.blocks;
 
 import java.util.Random;
 
-import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.TreasureChestLoot;
 import de.ellpeck.actuallyadditions.mod.blocks.base.BlockBase;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import net.minecraft.block.BlockHorizontal;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.material.Material;
@@ -34,7 +34,6 @@ import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.Mirror;
 import net.minecraft.util.Rotation;
 import net.minecraft.util.SoundCategory;
-import net.minecraft.util.WeightedRandom;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
@@ -95,7 +94,11 @@ public class BlockTreasureChest extends BlockBase{
 
     private void dropItems(World world, BlockPos pos){
         for(int i = 0; i < MathHelper.getInt(world.rand, 3, 6); i++){
-            TreasureChestLoot theReturn = WeightedRandom.getRandomItem(world.rand, ActuallyAdditionsAPI.TREASURE_CHEST_LOOT);
+            TreasureChestLoot theReturn = RecipeIndexes.TREASURE_CHEST.getRandom(world.rand);
+            if(theReturn == null){
+                return;
+            }
+
             ItemStack itemStack = theReturn.returnItem.copy();
             itemStack.setCount(MathHelper.getInt(world.rand, theReturn.minAmount, theReturn.maxAmount));
 
@@ -142,28 +142,28 @@ public abstract class BlockContainerBase extends BlockContainer implements ItemB
         }
     }
 
-    public void neighborsChangedCustom(World world, BlockPos pos){
+    public void neighborsChangedCustom(World world, BlockPos pos, BlockPos neighbor){
         this.updateRedstoneState(world, pos);
 
         TileEntity tile = world.getTileEntity(pos);
         if(tile instanceof TileEntityBase){
             TileEntityBase base = (TileEntityBase)tile;
             if(base.shouldSaveDataOnChangeOrWorldStart()){
-                base.saveDataOnChangeOrWorldStart();
+                base.onNeighborChanged(neighbor);
             }
         }
     }
 
     @Override
     public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos otherPos){
-        this.neighborsChangedCustom(worldIn, pos);
+        this.neighborsChangedCustom(worldIn, pos, otherPos);
     }
 
     @Override
     public void onNeighborChange(IBlockAccess world, BlockPos pos, BlockPos neighbor){
         super.onNeighborChange(world, pos, neighbor);
         if(world instanceof World){
-            this.neighborsChangedCustom((World)world, pos);
+            this.neighborsChangedCustom((World)world, pos, neighbor);
         }
     }
 
@@ -52,6 +52,8 @@ public enum ConfigBoolValues{
     TINY_COAL_STUFF("Tiny Coal", ConfigCategories.OTHER, true, "Should Tiny Coal and Tiny Charcoal be craftable"),
 
     LASER_RELAY_LOSS("Laser Relay Energy Loss", ConfigCategories.MACHINE_VALUES, true, "If Energy Laser Relays should have energy loss"),
+    LASER_RELAY_BUFFERED_ENERGY("Laser Relay Buffered Energy", ConfigCategories.MACHINE_VALUES, false, "If true, energy going into Energy Laser Relays is collected over the tick and split up evenly between all receivers of the network once at the end of it. This is a lot faster for networks with many generators and receivers."),
+    LASER_BEAM_EFFECTS("Laser Beam Effects", ConfigCategories.OTHER, true, "If laser beams of the Atomic Reconstructor, Vertical Digger and similar machines should be displayed. Turning this off makes the server stop sending them to you entirely."),
 
     SUPER_DUPER_HARD_MODE("Super Duper Hard Recipes", ConfigCategories.OTHER, false, "Turn this on to make recipes for items from the mod really hard. (This is a joke feature poking fun at the whole FTB Infinity Expert Mode style of playing. You shouldn't really turn this on as it makes the mod completely unplayable.)"),
     MOST_BLAND_PERSON_EVER("No Colored Item Names", ConfigCategories.OTHER, false, "If you want to be really boring and lame, you can turn on this setting to disable colored names on Actually Additions items. Because why would you want things to look pretty anyways, right?");
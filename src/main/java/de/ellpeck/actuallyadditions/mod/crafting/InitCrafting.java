@@ -23,6 +23,7 @@ import de.ellpeck.actuallyadditions.mod.misc.apiimpl.farmer.NetherWartFarmerBeha
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.farmer.ReedFarmerBehavior;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.farmer.exu.EnderlillyFarmerBehavior;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.farmer.exu.RedOrchidFarmerBehavior;
+import de.ellpeck.actuallyadditions.mod.util.PhaseTimer;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
@@ -33,11 +34,11 @@ public final class InitCrafting{
     public static void init(){
         ActuallyAdditions.LOGGER.info("Initializing Crafting Recipes...");
 
-        ItemCrafting.init();
-        BlockCrafting.init();
-        MiscCrafting.init();
-        FoodCrafting.init();
-        ToolCrafting.init();
+        PhaseTimer.run("Item Crafting Recipes", ItemCrafting::init);
+        PhaseTimer.run("Block Crafting Recipes", BlockCrafting::init);
+        PhaseTimer.run("Misc Crafting Recipes", MiscCrafting::init);
+        PhaseTimer.run("Food Crafting Recipes", FoodCrafting::init);
+        PhaseTimer.run("Tool Crafting Recipes", ToolCrafting::init);
 
         ActuallyAdditionsAPI.addCompostRecipe(Ingredient.fromStacks(new ItemStack(InitItems.itemMisc, 1, TheMiscItems.MASHED_FOOD.ordinal())), Blocks.LEAVES.getDefaultState(), new ItemStack(InitItems.itemFertilizer), Blocks.DIRT.getDefaultState());
         ActuallyAdditionsAPI.addCompostRecipe(Ingredient.fromItems(InitItems.itemCanolaSeed), Blocks.DIRT.getDefaultState(), new ItemStack(InitItems.itemMisc, 1, TheMiscItems.BIOMASS.ordinal()), Blocks.SOUL_SAND.getDefaultState());
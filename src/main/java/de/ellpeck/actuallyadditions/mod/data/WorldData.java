@@ -13,6 +13,7 @@ package de.ellpeck.actuallyadditions.mod.data;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.data.PlayerData.PlayerSave;
@@ -20,6 +21,7 @@ import de.ellpeck.actuallyadditions.mod.misc.apiimpl.LaserRelayConnectionHandler
 import io.netty.util.internal.ConcurrentSet;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.storage.WorldSavedData;
 
@@ -28,6 +30,11 @@ public class WorldData extends WorldSavedData {
     public static final String DATA_TAG = ActuallyAdditions.MODID + "data";
     private static WorldData data;
     public final ConcurrentSet<Network> laserRelayNetworks = new ConcurrentSet<Network>();
+    //Lookup index for the laser relay networks, maintained by the LaserRelayConnectionHandler
+    public final ConcurrentHashMap<BlockPos, Network> laserRelayNetworkIndex = new ConcurrentHashMap<BlockPos, Network>();
+    public final ConcurrentHashMap<BlockPos, ConcurrentSet<IConnectionPair>> laserRelayConnectionIndex = new ConcurrentHashMap<BlockPos, ConcurrentSet<IConnectionPair>>();
+    //The relays that are currently loaded, by dimension and chunk, see LaserRelayConnectionHandler.getChunkKey
+    public final ConcurrentHashMap<Long, ConcurrentSet<BlockPos>> laserRelayChunkIndex = new ConcurrentHashMap<Long, ConcurrentSet<BlockPos>>();
     public final ConcurrentHashMap<UUID, PlayerSave> playerSaveData = new ConcurrentHashMap<UUID, PlayerSave>();
 
     public WorldData(String name) {
@@ -77,10 +84,13 @@ public class WorldData extends WorldSavedData {
     @Override
     public void readFromNBT(NBTTagCompound compound) {
         this.laserRelayNetworks.clear();
+        this.laserRelayNetworkIndex.clear();
+        this.laserRelayConnectionIndex.clear();
         NBTTagList networkList = compound.getTagList("Networks", 10);
         for (int i = 0; i < networkList.tagCount(); i++) {
             Network network = LaserRelayConnectionHandler.readNetworkFromNBT(networkList.getCompoundTagAt(i));
             this.laserRelayNetworks.add(network);
+            LaserRelayConnectionHandler.indexNetwork(this, network);
         }
 
         this.playerSaveData.clear();
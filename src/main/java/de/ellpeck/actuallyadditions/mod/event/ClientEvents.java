@@ -20,6 +20,7 @@ import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.data.WorldData;
 import de.ellpeck.actuallyadditions.mod.inventory.gui.EnergyDisplay;
 import de.ellpeck.actuallyadditions.mod.items.ItemWingsOfTheBats;
+import de.ellpeck.actuallyadditions.mod.network.PacketHandlerHelper;
 import de.ellpeck.actuallyadditions.mod.tile.IEnergyDisplay;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
@@ -55,6 +56,7 @@ public class ClientEvents{
     private static final String ADVANCED_INFO_HEADER_PRE = TextFormatting.GRAY+"  -";
 
     private static EnergyDisplay energyDisplay;
+    private static Boolean sentLaserEffectSetting;
 
     public ClientEvents(){
         MinecraftForge.EVENT_BUS.register(this);
@@ -67,6 +69,15 @@ public class ClientEvents{
 
             if(mc.world == null){
                 WorldData.clear();
+                sentLaserEffectSetting = null;
+            }
+            else if(mc.player != null){
+                //Tells the server whether to send laser beams on joining and whenever the config changes
+                boolean laserEffects = ConfigBoolValues.LASER_BEAM_EFFECTS.isEnabled();
+                if(sentLaserEffectSetting == null || sentLaserEffectSetting != laserEffects){
+                    PacketHandlerHelper.sendLaserEffectSettingToServer(laserEffects);
+                    sentLaserEffectSetting = laserEffects;
+                }
             }
         }
     }
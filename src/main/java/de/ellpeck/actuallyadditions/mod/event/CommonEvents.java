@@ -20,10 +20,17 @@ import de.ellpeck.actuallyadditions.mod.inventory.ContainerBag;
 import de.ellpeck.actuallyadditions.mod.items.InitItems;
 import de.ellpeck.actuallyadditions.mod.items.ItemBag;
 import de.ellpeck.actuallyadditions.mod.items.ItemDrill;
+import de.ellpeck.actuallyadditions.mod.items.lens.LensMining;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheMiscItems;
 import de.ellpeck.actuallyadditions.mod.misc.DungeonLoot;
+import de.ellpeck.actuallyadditions.mod.misc.apiimpl.LaserRelayConnectionHandler;
+import de.ellpeck.actuallyadditions.mod.network.LaserEffectDispatcher;
+import de.ellpeck.actuallyadditions.mod.network.LaserParticleBatcher;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandlerHelper;
 import de.ellpeck.actuallyadditions.mod.tile.FilterSettings;
+import de.ellpeck.actuallyadditions.mod.tile.SyncInterestTracker;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelayEnergy;
 import de.ellpeck.actuallyadditions.mod.util.ItemStackHandlerAA;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
@@ -38,9 +45,12 @@ import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.living.LivingDropsEvent;
 import net.minecraftforge.event.entity.player.EntityItemPickupEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.oredict.OreDictionary;
 
 public class CommonEvents{
 
@@ -158,6 +168,42 @@ public class CommonEvents{
         }
     }
 
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event){
+        if(event.phase == TickEvent.Phase.END){
+            TileEntityLaserRelayEnergy.distributeBufferedEnergy();
+            LaserParticleBatcher.flush();
+            LaserEffectDispatcher.flush();
+            TileEntityBase.sendQueuedUpdates();
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerTick(TickEvent.PlayerTickEvent event){
+        if(event.phase == TickEvent.Phase.END && event.player instanceof EntityPlayerMP && event.player.ticksExisted%SyncInterestTracker.LOOK_CHECK_INTERVAL == 0){
+            SyncInterestTracker.updateLookedAtPosition((EntityPlayerMP)event.player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event){
+        if(!event.getWorld().isRemote){
+            LaserRelayConnectionHandler.onChunkLoadStateChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event){
+        if(!event.getWorld().isRemote){
+            LaserRelayConnectionHandler.onChunkLoadStateChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        }
+    }
+
+    @SubscribeEvent
+    public void onOreRegister(OreDictionary.OreRegisterEvent event){
+        LensMining.markOreTablesDirty();
+    }
+
     @SubscribeEvent
     public void onLogInEvent(PlayerEvent.PlayerLoggedInEvent event){
         if(!event.player.world.isRemote && event.player instanceof EntityPlayerMP){
@@ -44,9 +44,11 @@ import de.ellpeck.actuallyadditions.mod.inventory.gui.GuiRepairer;
 import de.ellpeck.actuallyadditions.mod.inventory.gui.GuiSmileyCloud;
 import de.ellpeck.actuallyadditions.mod.inventory.gui.GuiXPSolidifier;
 import de.ellpeck.actuallyadditions.mod.items.ItemBooklet;
+import de.ellpeck.actuallyadditions.mod.tile.SyncInterestTracker;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
 import de.ellpeck.actuallyadditions.mod.util.compat.CompatUtil;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.network.IGuiHandler;
@@ -65,6 +67,15 @@ public class GuiHandler implements IGuiHandler{
         if(GuiTypes.values()[id].checkTileEntity){
             tile = (TileEntityBase)world.getTileEntity(new BlockPos(x, y, z));
         }
+
+        Object element = getServerGuiElement(id, player, world, x, y, z, tile);
+        if(tile != null && element instanceof Container){
+            SyncInterestTracker.onContainerOpened((Container)element, tile);
+        }
+        return element;
+    }
+
+    private static Object getServerGuiElement(int id, EntityPlayer player, World world, int x, int y, int z, TileEntityBase tile){
         switch(GuiTypes.values()[id]){
             case FEEDER:
                 return new ContainerFeeder(player.inventory, tile);
@@ -20,6 +20,7 @@ import de.ellpeck.actuallyadditions.api.recipe.CoffeeIngredient;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.items.base.ItemFoodBase;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheMiscItems;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
 import net.minecraft.client.util.ITooltipFlag;
@@ -68,10 +69,7 @@ public class ItemCoffee extends ItemFoodBase{
 
     @Nullable
     public static CoffeeIngredient getIngredientFromStack(ItemStack stack){
-        for(CoffeeIngredient ingredient : ActuallyAdditionsAPI.COFFEE_MACHINE_INGREDIENTS){
-            if(ingredient.getInput().apply(stack)) return ingredient;
-        }
-        return null;
+        return RecipeIndexes.COFFEE.find(stack, (ingredient, input) -> ingredient.getInput().apply(input));
     }
 
     public static void applyPotionEffectsFromStack(ItemStack stack, EntityLivingBase player){
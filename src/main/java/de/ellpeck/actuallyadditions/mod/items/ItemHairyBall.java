@@ -13,10 +13,12 @@ package de.ellpeck.actuallyadditions.mod.items;
 import java.util.Random;
 import java.util.UUID;
 
-import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
+import de.ellpeck.actuallyadditions.api.recipe.BallOfFurReturn;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.items.base.ItemBase;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
+import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.passive.EntityOcelot;
 import net.minecraft.entity.player.EntityPlayer;
@@ -27,7 +29,6 @@ import net.minecraft.util.ActionResult;
 import net.minecraft.util.EnumActionResult;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.SoundCategory;
-import net.minecraft.util.WeightedRandom;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.living.LivingEvent;
@@ -59,20 +60,23 @@ public class ItemHairyBall extends ItemBase{
         ItemStack stack = player.getHeldItem(hand);
         if(!world.isRemote){
             ItemStack returnItem = this.getRandomReturnItem(world.rand);
-            if(!player.inventory.addItemStackToInventory(returnItem)){
-                EntityItem entityItem = new EntityItem(player.world, player.posX, player.posY, player.posZ, returnItem);
-                entityItem.setPickupDelay(0);
-                player.world.spawnEntity(entityItem);
-            }
-            stack.shrink(1);
+            if(StackUtil.isValid(returnItem)){
+                if(!player.inventory.addItemStackToInventory(returnItem)){
+                    EntityItem entityItem = new EntityItem(player.world, player.posX, player.posY, player.posZ, returnItem);
+                    entityItem.setPickupDelay(0);
+                    player.world.spawnEntity(entityItem);
+                }
+                stack.shrink(1);
 
-            world.playSound(null, player.posX, player.posY, player.posZ, SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.PLAYERS, 0.2F, world.rand.nextFloat()*0.1F+0.9F);
+                world.playSound(null, player.posX, player.posY, player.posZ, SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.PLAYERS, 0.2F, world.rand.nextFloat()*0.1F+0.9F);
+            }
         }
         return new ActionResult<ItemStack>(EnumActionResult.SUCCESS, stack);
     }
 
     public ItemStack getRandomReturnItem(Random rand){
-        return WeightedRandom.getRandomItem(rand, ActuallyAdditionsAPI.BALL_OF_FUR_RETURN_ITEMS).returnItem.copy();
+        BallOfFurReturn ret = RecipeIndexes.BALL_OF_FUR.getRandom(rand);
+        return ret == null ? StackUtil.getEmpty() : ret.returnItem.copy();
     }
 
 
@@ -13,6 +13,7 @@ package de.ellpeck.actuallyadditions.mod.items.lens;
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.internal.IAtomicReconstructor;
 import de.ellpeck.actuallyadditions.api.lens.Lens;
+import de.ellpeck.actuallyadditions.api.recipe.RecipeList;
 import de.ellpeck.actuallyadditions.api.recipe.WeightedOre;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigStringListValues;
@@ -27,18 +28,24 @@ import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumHand;
-import net.minecraft.util.WeightedRandom;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.FakePlayerFactory;
 import net.minecraftforge.oredict.OreDictionary;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class LensMining extends Lens{
 
     public static final int ENERGY_USE = 60000;
 
+    private static OreTable stoneOreTable;
+    private static OreTable netherrackOreTable;
+    private static volatile boolean oreTablesDirty = true;
+
     public static void init(){
         ActuallyAdditionsAPI.addMiningLensStoneOre("oreCoal", 5000);
         ActuallyAdditionsAPI.addMiningLensNetherOre("oreNetherCoal", 5000);
@@ -129,38 +136,20 @@ public class LensMining extends Lens{
             if(tile.getEnergy() >= ENERGY_USE){
                 int adaptedUse = ENERGY_USE;
 
-                List<WeightedOre> ores = null;
+                OreTable ores = null;
                 Block hitBlock = hitState.getBlock();
                 if(hitBlock instanceof BlockStone){
-                    ores = ActuallyAdditionsAPI.STONE_ORES;
+                    ores = getOreTable(false);
                 }
                 else if(hitBlock instanceof BlockNetherrack){
-                    ores = ActuallyAdditionsAPI.NETHERRACK_ORES;
+                    ores = getOreTable(true);
                     adaptedUse += 10000;
                 }
 
-                if(ores != null){
-                    int totalWeight = WeightedRandom.getTotalWeight(ores);
-                    ItemStack stack = null;
-
-                    boolean found = false;
-                    while(!found){
-                        WeightedOre ore = WeightedRandom.getRandomItem(tile.getWorldObject().rand, ores, totalWeight);
-                        if(ore != null){
-                            List<ItemStack> stacks = OreDictionary.getOres(ore.name, false);
-                            if(stacks != null && !stacks.isEmpty()){
-                                for(ItemStack aStack : stacks){
-                                    if(StackUtil.isValid(aStack) && !CrusherRecipeRegistry.hasBlacklistedOutput(aStack, ConfigStringListValues.MINING_LENS_BLACKLIST.getValue()) && aStack.getItem() instanceof ItemBlock){
-                                        adaptedUse += (totalWeight-ore.itemWeight)%40000;
-
-                                        stack = aStack;
-                                        found = true;
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
+                if(ores != null && ores.totalWeight > 0){
+                    int index = ores.getRandomIndex(tile.getWorldObject().rand);
+                    ItemStack stack = ores.stacks[index];
+                    adaptedUse += ores.energyUse[index];
 
                     if(tile.getEnergy() >= adaptedUse){
                         Block block = Block.getBlockFromItem(stack.getItem());
@@ -183,6 +172,22 @@ public class LensMining extends Lens{
         }
     }
 
+    /**
+     * Makes the ore tables get resolved again, this needs to happen when something is added to the Ore Dictionary
+     */
+    public static void markOreTablesDirty(){
+        oreTablesDirty = true;
+    }
+
+    private static synchronized OreTable getOreTable(boolean netherrack){
+        if(oreTablesDirty || stoneOreTable.isOutdated() || netherrackOreTable.isOutdated()){
+            oreTablesDirty = false;
+            stoneOreTable = new OreTable((RecipeList<WeightedOre>)ActuallyAdditionsAPI.STONE_ORES);
+            netherrackOreTable = new OreTable((RecipeList<WeightedOre>)ActuallyAdditionsAPI.NETHERRACK_ORES);
+        }
+        return netherrack ? netherrackOreTable : stoneOreTable;
+    }
+
     @Override
     public float[] getColor(){
         return new float[]{76F/255F, 76F/255F, 76F/255F};
@@ -192,4 +197,73 @@ public class LensMining extends Lens{
     public int getDistance(){
         return 10;
     }
+
+    /**
+     * The ores of a list that actually exist and aren't blacklisted, with their weights added up
+     * so that one can be picked with a single binary search
+     */
+    private static class OreTable{
+
+        private final RecipeList<WeightedOre> ores;
+        private final int modCount;
+
+        private final ItemStack[] stacks;
+        private final int[] cumulativeWeights;
+        private final int[] energyUse;
+        private final int totalWeight;
+
+        public OreTable(RecipeList<WeightedOre> ores){
+            this.ores = ores;
+            this.modCount = ores.getModCount();
+
+            //The energy use is based on the weight of all ores, including the ones that don't exist
+            int allWeight = 0;
+            for(WeightedOre ore : ores){
+                allWeight += ore.itemWeight;
+            }
+
+            List<ItemStack> stacks = new ArrayList<>();
+            int[] energyUse = new int[ores.size()];
+            int[] cumulativeWeights = new int[ores.size()];
+            int totalWeight = 0;
+            for(WeightedOre ore : ores){
+                if(ore.itemWeight > 0){
+                    ItemStack stack = getOreBlock(ore.name);
+                    if(stack != null){
+                        totalWeight += ore.itemWeight;
+                        cumulativeWeights[stacks.size()] = totalWeight;
+                        energyUse[stacks.size()] = (allWeight-ore.itemWeight)%40000;
+                        stacks.add(stack);
+                    }
+                }
+            }
+
+            this.stacks = stacks.toArray(new ItemStack[stacks.size()]);
+            this.cumulativeWeights = Arrays.copyOf(cumulativeWeights, stacks.size());
+            this.energyUse = Arrays.copyOf(energyUse, stacks.size());
+            this.totalWeight = totalWeight;
+        }
+
+        private static ItemStack getOreBlock(String name){
+            List<ItemStack> stacks = OreDictionary.getOres(name, false);
+            if(stacks != null){
+                for(ItemStack stack : stacks){
+                    if(StackUtil.isValid(stack) && stack.getItem() instanceof ItemBlock && !CrusherRecipeRegistry.hasBlacklistedOutput(stack, ConfigStringListValues.MINING_LENS_BLACKLIST.getValue())){
+                        return stack;
+                    }
+                }
+            }
+            return null;
+        }
+
+        public int getRandomIndex(Random rand){
+            //The weights only ever go up, so this finds the first entry whose range contains the random value
+            int index = Arrays.binarySearch(this.cumulativeWeights, rand.nextInt(this.totalWeight)+1);
+            return index >= 0 ? index : -index-1;
+        }
+
+        public boolean isOutdated(){
+            return this.modCount != this.ores.getModCount();
+        }
+    }
 }
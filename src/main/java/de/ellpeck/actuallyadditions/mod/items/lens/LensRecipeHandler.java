@@ -11,7 +11,10 @@
 package de.ellpeck.actuallyadditions.mod.items.lens;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -25,8 +28,13 @@ import de.ellpeck.actuallyadditions.mod.items.InitItems;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheCrystals;
 import de.ellpeck.actuallyadditions.mod.items.metalists.TheMiscItems;
 import de.ellpeck.actuallyadditions.mod.recipe.EnchBookConversion;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.util.RecipeUtil;
+import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
 import net.minecraft.item.Item;
@@ -50,6 +58,11 @@ public final class LensRecipeHandler{
     public static LensConversionRecipe recipeFluidLaser;
     public static EnchBookConversion recipeEnchBook;
 
+    private static final LensConversionRecipe NO_RECIPE = new LensConversionRecipe(Ingredient.EMPTY, ItemStack.EMPTY, 0, null);
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Map<Lens, LensCache> LENS_CACHES = new HashMap<>();
+    private static int cachedModCount = -1;
+
     public static void init(){
         //Crystal Blocks
         ActuallyAdditionsAPI.addReconstructorLensConversionRecipe(fromBlock(Blocks.REDSTONE_BLOCK), new ItemStack(InitBlocks.blockCrystal, 1, TheCrystals.REDSTONE.ordinal()), 400);
@@ -135,13 +148,73 @@ public final class LensRecipeHandler{
     }
 
     @Nullable
-    public static LensConversionRecipe findMatchingRecipe(ItemStack input, Lens lens){
-        for(LensConversionRecipe recipe : ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES)
-            if(recipe.matches(input, lens)) return recipe;
-        return null;
+    public static synchronized LensConversionRecipe findMatchingRecipe(ItemStack input, Lens lens){
+        if(!StackUtil.isValid(input)){
+            return null;
+        }
+
+        //Inputs with NBT can't be remembered by item and meta alone
+        if(input.hasTagCompound()){
+            return findUncached(input, lens);
+        }
+
+        Long2ObjectMap<LensConversionRecipe> cache = getCache(lens).byItem;
+        long key = ((long)Item.getIdFromItem(input.getItem()) << 32) | (input.getMetadata() & 0xFFFFFFFFL);
+        LensConversionRecipe recipe = cache.get(key);
+        if(recipe == null){
+            recipe = findUncached(input, lens);
+            if(cache.size() >= MAX_CACHE_SIZE){
+                cache.clear();
+            }
+            cache.put(key, recipe != null ? recipe : NO_RECIPE);
+        }
+        return recipe == NO_RECIPE ? null : recipe;
+    }
+
+    /**
+     * Finds the recipe for a block in the world without needing to create an ItemStack of it every time
+     */
+    @Nullable
+    public static synchronized LensConversionRecipe findMatchingRecipe(IBlockState state, Lens lens){
+        Map<IBlockState, LensConversionRecipe> cache = getCache(lens).byState;
+        LensConversionRecipe recipe = cache.get(state);
+        if(recipe == null){
+            Block block = state.getBlock();
+            recipe = findUncached(new ItemStack(block, 1, block.getMetaFromState(state)), lens);
+            if(cache.size() >= MAX_CACHE_SIZE){
+                cache.clear();
+            }
+            cache.put(state, recipe != null ? recipe : NO_RECIPE);
+        }
+        return recipe == NO_RECIPE ? null : recipe;
+    }
+
+    private static LensConversionRecipe findUncached(ItemStack input, Lens lens){
+        return RecipeIndexes.LENS_CONVERSION.find(input, (recipe, stack) -> recipe.matches(stack, lens));
+    }
+
+    private static LensCache getCache(Lens lens){
+        if(cachedModCount != RecipeIndexes.LENS_CONVERSION.getModCount()){
+            LENS_CACHES.clear();
+            cachedModCount = RecipeIndexes.LENS_CONVERSION.getModCount();
+        }
+
+        LensCache cache = LENS_CACHES.get(lens);
+        if(cache == null){
+            cache = new LensCache();
+            LENS_CACHES.put(lens, cache);
+        }
+        return cache;
     }
     
     private static Ingredient fromBlock(Block b) {
         return Ingredient.fromItems(Item.getItemFromBlock(b));
     }
+
+    private static class LensCache{
+
+        //Block states are singletons, so they can be compared by identity
+        private final Map<IBlockState, LensConversionRecipe> byState = new IdentityHashMap<>();
+        private final Long2ObjectMap<LensConversionRecipe> byItem = new Long2ObjectOpenHashMap<>();
+    }
 }
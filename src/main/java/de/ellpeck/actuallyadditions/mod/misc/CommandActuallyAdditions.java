@@ -0,0 +1,97 @@
+/*
+ * This file ("CommandActuallyAdditions.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.misc;
+
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler.Stats;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class CommandActuallyAdditions extends CommandBase{
+
+    private static final int DEFAULT_DUMP_AMOUNT = 20;
+    private static final int CHAT_DUMP_AMOUNT = 5;
+
+    @Override
+    public String getName(){
+        return "aa";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender){
+        return "/aa profile <start|stop|dump> [amount]";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel(){
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+        if(args.length >= 2 && "profile".equals(args[0])){
+            if("start".equals(args[1])){
+                TickProfiler.start();
+                sender.sendMessage(new TextComponentString("Started profiling Actually Additions tiles."));
+                return;
+            }
+            else if("stop".equals(args[1])){
+                if(!TickProfiler.isRunning()){
+                    throw new CommandException("The profiler isn't running.");
+                }
+                TickProfiler.stop();
+                sender.sendMessage(new TextComponentString("Stopped profiling after "+TickProfiler.getProfiledTime()/1000000000L+" seconds. Use /aa profile dump to see the results."));
+                return;
+            }
+            else if("dump".equals(args[1])){
+                int amount = args.length >= 3 ? parseInt(args[2], 1) : DEFAULT_DUMP_AMOUNT;
+                File file = server.getFile("actuallyadditions-profile-"+new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date())+".csv");
+                try{
+                    TickProfiler.dump(file, amount);
+                }
+                catch(IOException e){
+                    throw new CommandException("Couldn't write the profiling results: "+e.getMessage());
+                }
+
+                sender.sendMessage(new TextComponentString("Wrote the top "+amount+" profiling results to "+file.getName()+"."));
+                for(Stats stats : TickProfiler.getTopTicks(CHAT_DUMP_AMOUNT)){
+                    sender.sendMessage(new TextComponentString(String.format("%s: %dms over %d ticks, %.3fms on average", stats.name, stats.total/1000000L, stats.count, stats.getAverage()/1000000D)));
+                }
+                return;
+            }
+        }
+        throw new WrongUsageException(this.getUsage(sender));
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos){
+        if(args.length == 1){
+            return getListOfStringsMatchingLastWord(args, "profile");
+        }
+        else if(args.length == 2 && "profile".equals(args[0])){
+            return getListOfStringsMatchingLastWord(args, "start", "stop", "dump");
+        }
+        return Collections.emptyList();
+    }
+}
@@ -10,6 +10,8 @@
 
 package de.ellpeck.actuallyadditions.mod.misc.apiimpl;
 
+import java.util.Objects;
+
 import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
 import de.ellpeck.actuallyadditions.api.laser.LaserType;
 import net.minecraft.nbt.NBTTagCompound;
@@ -98,12 +100,14 @@ public class ConnectionPair implements IConnectionPair{
     public boolean equals(Object obj){
         if(obj instanceof ConnectionPair){
             ConnectionPair pair = (ConnectionPair)obj;
-            for(int i = 0; i < this.positions.length; i++){
-                if(this.positions[i] == pair.positions[i] || (this.positions[i] != null && this.positions[i].equals(pair.positions[i]))){
-                    return true;
-                }
-            }
+            return (Objects.equals(this.positions[0], pair.positions[0]) && Objects.equals(this.positions[1], pair.positions[1])) || (Objects.equals(this.positions[0], pair.positions[1]) && Objects.equals(this.positions[1], pair.positions[0]));
         }
         return super.equals(obj);
     }
+
+    @Override
+    public int hashCode(){
+        //Order independent so that the same connection in the other direction ends up in the same bucket
+        return Objects.hashCode(this.positions[0])^Objects.hashCode(this.positions[1]);
+    }
 }
@@ -10,6 +10,13 @@
 
 package de.ellpeck.actuallyadditions.mod.misc.apiimpl;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
 import de.ellpeck.actuallyadditions.api.laser.IConnectionPair;
 import de.ellpeck.actuallyadditions.api.laser.ILaserRelayConnectionHandler;
 import de.ellpeck.actuallyadditions.api.laser.LaserType;
@@ -17,6 +24,7 @@ import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.data.WorldData;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelay;
 import io.netty.util.internal.ConcurrentSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
@@ -25,57 +33,299 @@ import net.minecraft.world.World;
 
 public final class LaserRelayConnectionHandler implements ILaserRelayConnectionHandler{
 
+    private static final int NO_TYPE = 0x7F;
+    private static final int SUPPRESS_RENDER_FLAG = 0x80;
+
+    /**
+     * Writes a network in a packed format: Every pair is stored as its two positions
+     * (each as a long split into two ints) and one byte that has the laser type and the suppress render flag
+     */
     public static NBTTagCompound writeNetworkToNBT(Network network){
-        NBTTagList list = new NBTTagList();
-        for(IConnectionPair pair : network.connections){
-            NBTTagCompound tag = new NBTTagCompound();
-            pair.writeToNBT(tag);
-            list.appendTag(tag);
+        List<IConnectionPair> pairs = new ArrayList<IConnectionPair>(network.connections);
+        int[] positions = new int[pairs.size()*4];
+        byte[] flags = new byte[pairs.size()];
+
+        for(int i = 0; i < pairs.size(); i++){
+            IConnectionPair pair = pairs.get(i);
+            for(int j = 0; j < 2; j++){
+                long pos = pair.getPositions()[j].toLong();
+                positions[i*4+j*2] = (int)(pos >> 32);
+                positions[i*4+j*2+1] = (int)pos;
+            }
+
+            LaserType type = pair.getType();
+            int flag = type == null ? NO_TYPE : type.ordinal();
+            if(pair.doesSuppressRender()){
+                flag |= SUPPRESS_RENDER_FLAG;
+            }
+            flags[i] = (byte)flag;
         }
+
         NBTTagCompound compound = new NBTTagCompound();
-        compound.setTag("Network", list);
+        compound.setIntArray("Positions", positions);
+        compound.setByteArray("Flags", flags);
         return compound;
     }
 
     public static Network readNetworkFromNBT(NBTTagCompound tag){
-        NBTTagList list = tag.getTagList("Network", 10);
         Network network = new Network();
-        for(int i = 0; i < list.tagCount(); i++){
-            ConnectionPair pair = new ConnectionPair();
-            pair.readFromNBT(list.getCompoundTagAt(i));
-            network.connections.add(pair);
+        if(tag.hasKey("Positions", 11)){
+            int[] positions = tag.getIntArray("Positions");
+            byte[] flags = tag.getByteArray("Flags");
+
+            for(int i = 0; i < flags.length && i*4+3 < positions.length; i++){
+                BlockPos first = BlockPos.fromLong(((long)positions[i*4] << 32) | (positions[i*4+1] & 0xFFFFFFFFL));
+                BlockPos second = BlockPos.fromLong(((long)positions[i*4+2] << 32) | (positions[i*4+3] & 0xFFFFFFFFL));
+
+                int flag = flags[i] & 0xFF;
+                int typeOrdinal = flag & NO_TYPE;
+                LaserType type = typeOrdinal < LaserType.values().length ? LaserType.values()[typeOrdinal] : null;
+                network.connections.add(new ConnectionPair(first, second, type, (flag & SUPPRESS_RENDER_FLAG) != 0));
+            }
+        }
+        else{
+            //Legacy format from before the packed one, gets converted on the next save
+            NBTTagList list = tag.getTagList("Network", 10);
+            for(int i = 0; i < list.tagCount(); i++){
+                ConnectionPair pair = new ConnectionPair();
+                pair.readFromNBT(list.getCompoundTagAt(i));
+                network.connections.add(pair);
+            }
         }
         return network;
     }
 
+    /**
+     * Registers all pairs of a network in the relay lookup index of the WorldData
+     */
+    public static void indexNetwork(WorldData data, Network network){
+        for(IConnectionPair pair : network.connections){
+            indexPair(data, network, pair);
+        }
+    }
+
+    private static void indexPair(WorldData data, Network network, IConnectionPair pair){
+        for(BlockPos relay : pair.getPositions()){
+            if(relay != null){
+                data.laserRelayNetworkIndex.put(relay, network);
+
+                ConcurrentSet<IConnectionPair> pairs = data.laserRelayConnectionIndex.get(relay);
+                if(pairs == null){
+                    pairs = new ConcurrentSet<IConnectionPair>();
+                    data.laserRelayConnectionIndex.put(relay, pairs);
+                }
+                pairs.add(pair);
+            }
+        }
+    }
+
+    private static void unindexPair(WorldData data, Network network, IConnectionPair pair){
+        for(BlockPos relay : pair.getPositions()){
+            if(relay != null){
+                ConcurrentSet<IConnectionPair> pairs = data.laserRelayConnectionIndex.get(relay);
+                if(pairs != null){
+                    pairs.remove(pair);
+                    if(pairs.isEmpty()){
+                        data.laserRelayConnectionIndex.remove(relay);
+                        data.laserRelayNetworkIndex.remove(relay, network);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addPairToNetwork(WorldData data, Network network, IConnectionPair pair){
+        network.connections.add(pair);
+        indexPair(data, network, pair);
+    }
+
+    /**
+     * Removes pairs from a network and splits off the parts of it that aren't connected to each other anymore.
+     * Only the relays of the given network are visited, every other network stays untouched.
+     */
+    private static void removePairsAndSplit(WorldData data, Network network, Collection<IConnectionPair> removedPairs){
+        Set<BlockPos> affectedRelays = new ObjectOpenHashSet<BlockPos>();
+        for(IConnectionPair pair : removedPairs){
+            network.connections.remove(pair);
+            unindexPair(data, network, pair);
+            for(BlockPos relay : pair.getPositions()){
+                if(relay != null){
+                    affectedRelays.add(relay);
+                }
+            }
+        }
+        network.changeAmount++;
+        data.markDirty();
+
+        if(network.connections.isEmpty()){
+            data.laserRelayNetworks.remove(network);
+            return;
+        }
+
+        //The first part stays in the old network, every other part that got disconnected becomes its own network
+        Set<BlockPos> visited = new ObjectOpenHashSet<BlockPos>();
+        boolean first = true;
+        for(BlockPos relay : affectedRelays){
+            if(!visited.contains(relay) && data.laserRelayConnectionIndex.containsKey(relay)){
+                Set<IConnectionPair> part = collectConnectedPairs(data, relay, visited);
+                if(first){
+                    if(part.size() >= network.connections.size()){
+                        return;
+                    }
+                    first = false;
+                }
+                else{
+                    Network newNetwork = new Network();
+                    for(IConnectionPair pair : part){
+                        network.connections.remove(pair);
+                        newNetwork.connections.add(pair);
+                        for(BlockPos position : pair.getPositions()){
+                            if(position != null){
+                                data.laserRelayNetworkIndex.put(position, newNetwork);
+                            }
+                        }
+                    }
+                    newNetwork.changeAmount++;
+                    data.laserRelayNetworks.add(newNetwork);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects all pairs that are reachable from a relay
+     */
+    private static Set<IConnectionPair> collectConnectedPairs(WorldData data, BlockPos start, Set<BlockPos> visited){
+        Set<IConnectionPair> pairs = new ObjectOpenHashSet<IConnectionPair>();
+        Deque<BlockPos> queue = new ArrayDeque<BlockPos>();
+        visited.add(start);
+        queue.add(start);
+
+        while(!queue.isEmpty()){
+            ConcurrentSet<IConnectionPair> connections = data.laserRelayConnectionIndex.get(queue.poll());
+            if(connections != null){
+                for(IConnectionPair pair : connections){
+                    if(pairs.add(pair)){
+                        for(BlockPos position : pair.getPositions()){
+                            if(position != null && visited.add(position)){
+                                queue.add(position);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
     /**
      * Merges two laserRelayNetworks together
      * (Actually puts everything from the second network into the first one and removes the second one)
      */
     private static void mergeNetworks(Network firstNetwork, Network secondNetwork, World world){
+        WorldData data = WorldData.get(world);
         for(IConnectionPair secondPair : secondNetwork.connections){
-            firstNetwork.connections.add(secondPair);
+            addPairToNetwork(data, firstNetwork, secondPair);
         }
 
-        WorldData data = WorldData.get(world);
         secondNetwork.changeAmount++;
         data.laserRelayNetworks.remove(secondNetwork);
         data.markDirty();
         //System.out.println("Merged Two Networks!");
     }
 
+    /**
+     * Gets the key of a chunk in the chunk index of the WorldData.
+     * Chunk coordinates use 22 bits each, which covers the whole world border, and the dimension gets the rest.
+     */
+    public static long getChunkKey(int dimension, int chunkX, int chunkZ){
+        return ((long)dimension << 44) | ((long)(chunkX & 0x3FFFFF) << 22) | (chunkZ & 0x3FFFFF);
+    }
+
+    /**
+     * Adds a relay to the chunk index once its tile entity is loaded and marks its network as changed
+     */
+    public static void onRelayLoaded(World world, BlockPos relay){
+        WorldData data = WorldData.get(world);
+        long chunk = getChunkKey(world.provider.getDimension(), relay.getX() >> 4, relay.getZ() >> 4);
+
+        ConcurrentSet<BlockPos> relays = data.laserRelayChunkIndex.get(chunk);
+        if(relays == null){
+            relays = new ConcurrentSet<BlockPos>();
+            data.laserRelayChunkIndex.put(chunk, relays);
+        }
+        relays.add(relay);
+
+        Network network = data.laserRelayNetworkIndex.get(relay);
+        if(network != null){
+            network.changeAmount++;
+        }
+    }
+
+    /**
+     * Removes a relay from the chunk index when its tile entity gets unloaded or removed and marks its network as changed
+     */
+    public static void onRelayUnloaded(World world, BlockPos relay){
+        WorldData data = WorldData.get(world);
+        long chunk = getChunkKey(world.provider.getDimension(), relay.getX() >> 4, relay.getZ() >> 4);
+
+        ConcurrentSet<BlockPos> relays = data.laserRelayChunkIndex.get(chunk);
+        if(relays != null){
+            relays.remove(relay);
+            if(relays.isEmpty()){
+                data.laserRelayChunkIndex.remove(chunk);
+            }
+        }
+
+        Network network = data.laserRelayNetworkIndex.get(relay);
+        if(network != null){
+            network.changeAmount++;
+        }
+    }
+
+    /**
+     * Marks all networks with loaded relays right next to a chunk as changed when the chunk gets loaded or unloaded,
+     * so that receivers they have cached in the chunk get rebuilt. The relays in the chunk itself take care of their
+     * own networks through onRelayLoaded and onRelayUnloaded.
+     * That way, everything that caches parts of a network (like receivers) gets rebuilt with only the loaded parts
+     * instead of having to check every single position on every transfer.
+     */
+    public static void onChunkLoadStateChanged(World world, int chunkX, int chunkZ){
+        WorldData data = WorldData.get(world);
+        if(!data.laserRelayChunkIndex.isEmpty()){
+            int dimension = world.provider.getDimension();
+            int minX = chunkX << 4;
+            int minZ = chunkZ << 4;
+
+            Set<Network> changed = new ObjectOpenHashSet<Network>();
+            for(int x = -1; x <= 1; x++){
+                for(int z = -1; z <= 1; z++){
+                    ConcurrentSet<BlockPos> relays = data.laserRelayChunkIndex.get(getChunkKey(dimension, chunkX+x, chunkZ+z));
+                    if(relays != null){
+                        for(BlockPos relay : relays){
+                            //Relays in the chunks around only matter if they have a neighbor in the chunk
+                            if(relay.getX() >= minX-1 && relay.getX() <= minX+16 && relay.getZ() >= minZ-1 && relay.getZ() <= minZ+16){
+                                Network network = data.laserRelayNetworkIndex.get(relay);
+                                if(network != null && changed.add(network)){
+                                    network.changeAmount++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Gets all Connections for a Relay
      */
     @Override
     public ConcurrentSet<IConnectionPair> getConnectionsFor(BlockPos relay, World world){
         ConcurrentSet<IConnectionPair> allPairs = new ConcurrentSet<IConnectionPair>();
-        for(Network aNetwork : WorldData.get(world).laserRelayNetworks){
-            for(IConnectionPair pair : aNetwork.connections){
-                if(pair.contains(relay)){
-                    allPairs.add(pair);
-                }
-            }
+        ConcurrentSet<IConnectionPair> pairs = WorldData.get(world).laserRelayConnectionIndex.get(relay);
+        if(pairs != null){
+            allPairs.addAll(pairs);
         }
         return allPairs;
     }
@@ -87,16 +337,11 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
     public void removeRelayFromNetwork(BlockPos relay, World world){
         Network network = this.getNetworkFor(relay, world);
         if(network != null){
-            network.changeAmount++;
-
-            //Setup new network (so that splitting a network will cause it to break into two)
             WorldData data = WorldData.get(world);
-            data.laserRelayNetworks.remove(network);
-            data.markDirty();
-            for(IConnectionPair pair : network.connections){
-                if(!pair.contains(relay)){
-                    this.addConnection(pair.getPositions()[0], pair.getPositions()[1], pair.getType(), world, pair.doesSuppressRender());
-                }
+            ConcurrentSet<IConnectionPair> pairs = data.laserRelayConnectionIndex.get(relay);
+            if(pairs != null){
+                //Split the network up if removing the relay disconnects parts of it
+                removePairsAndSplit(data, network, new ArrayList<IConnectionPair>(pairs));
             }
             //System.out.println("Removing a Relay from the Network!");
         }
@@ -107,13 +352,8 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
      */
     @Override
     public Network getNetworkFor(BlockPos relay, World world){
-    	if(world != null)
-        for(Network aNetwork : WorldData.get(world).laserRelayNetworks){
-            for(IConnectionPair pair : aNetwork.connections){
-                if(pair.contains(relay)){
-                    return aNetwork;
-                }
-            }
+        if(world != null && relay != null){
+            return WorldData.get(world).laserRelayNetworkIndex.get(relay);
         }
         return null;
     }
@@ -146,7 +386,7 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
         if(firstNetwork == null && secondNetwork == null){
             firstNetwork = new Network();
             data.laserRelayNetworks.add(firstNetwork);
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
+            addPairToNetwork(data, firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
             firstNetwork.changeAmount++;
         }
         //The same Network
@@ -162,17 +402,17 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
         //Both relays have laserRelayNetworks
         else if(firstNetwork != null && secondNetwork != null){
             mergeNetworks(firstNetwork, secondNetwork, world);
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
+            addPairToNetwork(data, firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
             firstNetwork.changeAmount++;
         }
         //Only first network exists
         else if(firstNetwork != null){
-            firstNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
+            addPairToNetwork(data, firstNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
             firstNetwork.changeAmount++;
         }
         //Only second network exists
         else{
-            secondNetwork.connections.add(new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
+            addPairToNetwork(data, secondNetwork, new ConnectionPair(firstRelay, secondRelay, type, suppressConnectionRender));
             secondNetwork.changeAmount++;
         }
         //System.out.println("Connected "+firstRelay.toString()+" to "+secondRelay.toString());
@@ -188,15 +428,18 @@ public final class LaserRelayConnectionHandler implements ILaserRelayConnectionH
             Network network = this.getNetworkFor(firstRelay, world);
 
             if(network != null){
-                network.changeAmount++;
-
                 WorldData data = WorldData.get(world);
-                data.laserRelayNetworks.remove(network);
-                data.markDirty();
+                ConcurrentSet<IConnectionPair> pairs = data.laserRelayConnectionIndex.get(firstRelay);
+                if(pairs != null){
+                    List<IConnectionPair> removedPairs = new ArrayList<IConnectionPair>();
+                    for(IConnectionPair pair : pairs){
+                        if(pair.contains(secondRelay)){
+                            removedPairs.add(pair);
+                        }
+                    }
 
-                for(IConnectionPair pair : network.connections){
-                    if(!pair.contains(firstRelay) || !pair.contains(secondRelay)){
-                        this.addConnection(pair.getPositions()[0], pair.getPositions()[1], pair.getType(), world, pair.doesSuppressRender());
+                    if(!removedPairs.isEmpty()){
+                        removePairsAndSplit(data, network, removedPairs);
                     }
                 }
             }
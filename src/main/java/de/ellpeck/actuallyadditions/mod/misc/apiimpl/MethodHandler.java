@@ -166,9 +166,9 @@ public class MethodHandler implements IMethodHandler{
                 for(int reachZ = -rangeZ; reachZ <= rangeZ; reachZ++){
                     for(int reachY = -rangeY; reachY <= rangeY; reachY++){
                         BlockPos pos = new BlockPos(hitBlock.getX()+reachX, hitBlock.getY()+reachY, hitBlock.getZ()+reachZ);
-                        if(!tile.getWorldObject().isAirBlock(pos)){
-                            IBlockState state = tile.getWorldObject().getBlockState(pos);
-                            LensConversionRecipe recipe = LensRecipeHandler.findMatchingRecipe(new ItemStack(state.getBlock(), 1, state.getBlock().getMetaFromState(state)), tile.getLens());
+                        IBlockState state = tile.getWorldObject().getBlockState(pos);
+                        if(!state.getBlock().isAir(state, tile.getWorldObject(), pos)){
+                            LensConversionRecipe recipe = LensRecipeHandler.findMatchingRecipe(state, tile.getLens());
                                 if(recipe != null && tile.getEnergy() >= recipe.getEnergyUsed()){
                                     ItemStack output = recipe.getOutput();
                                     if(StackUtil.isValid(output)){
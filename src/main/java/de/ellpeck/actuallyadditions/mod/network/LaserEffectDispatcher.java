@@ -0,0 +1,241 @@
+/*
+ * This file ("LaserEffectDispatcher.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * Collects the laser beams of machines during a tick, grouped by the chunk they start in,
+ * and sends every player only the ones they can see as one packet at the end of it
+ */
+public final class LaserEffectDispatcher{
+
+    //The distance in which the client displays beams at all
+    private static final double DISPLAY_RANGE_SQ = 64*64;
+    //Beams closer than this are always sent, even if they're behind the player, as they might turn around while they're still shown
+    private static final double BEHIND_RANGE_SQ = 16*16;
+    private static final int CAP_INTERVAL = 20;
+
+    private static final Map<Integer, Map<ChunkPos, Set<LaserEffect>>> QUEUED_EFFECTS = new HashMap<Integer, Map<ChunkPos, Set<LaserEffect>>>();
+    private static final Map<EntityPlayerMP, EffectBudget> BUDGETS = new WeakHashMap<EntityPlayerMP, EffectBudget>();
+    private static final Set<UUID> OPTED_OUT_PLAYERS = new HashSet<UUID>();
+
+    public static void queue(World world, LaserEffect effect){
+        if(ConfigIntValues.LASER_EFFECT_CAP.getValue() > 0){
+            int dimension = world.provider.getDimension();
+            Map<ChunkPos, Set<LaserEffect>> chunks = QUEUED_EFFECTS.get(dimension);
+            if(chunks == null){
+                chunks = new LinkedHashMap<ChunkPos, Set<LaserEffect>>();
+                QUEUED_EFFECTS.put(dimension, chunks);
+            }
+
+            ChunkPos chunk = new ChunkPos(MathHelper.floor(effect.startX) >> 4, MathHelper.floor(effect.startZ) >> 4);
+            Set<LaserEffect> effects = chunks.get(chunk);
+            if(effects == null){
+                effects = new LinkedHashSet<LaserEffect>();
+                chunks.put(chunk, effects);
+            }
+            effects.add(effect);
+        }
+    }
+
+    public static void flush(){
+        if(!QUEUED_EFFECTS.isEmpty()){
+            int cap = ConfigIntValues.LASER_EFFECT_CAP.getValue();
+            int tick = FMLCommonHandler.instance().getMinecraftServerInstance().getTickCounter();
+
+            for(Map.Entry<Integer, Map<ChunkPos, Set<LaserEffect>>> entry : QUEUED_EFFECTS.entrySet()){
+                World world = DimensionManager.getWorld(entry.getKey());
+                if(world instanceof WorldServer){
+                    PlayerChunkMap chunkMap = ((WorldServer)world).getPlayerChunkMap();
+                    for(EntityPlayer player : world.playerEntities){
+                        if(player instanceof EntityPlayerMP && !OPTED_OUT_PLAYERS.contains(player.getUniqueID())){
+                            sendTo((EntityPlayerMP)player, chunkMap, entry.getValue(), cap, tick);
+                        }
+                    }
+                }
+            }
+            QUEUED_EFFECTS.clear();
+        }
+    }
+
+    public static void setEffectsEnabled(EntityPlayer player, boolean enabled){
+        if(enabled){
+            OPTED_OUT_PLAYERS.remove(player.getUniqueID());
+        }
+        else{
+            OPTED_OUT_PLAYERS.add(player.getUniqueID());
+        }
+    }
+
+    private static void sendTo(EntityPlayerMP player, PlayerChunkMap chunkMap, Map<ChunkPos, Set<LaserEffect>> chunks, int cap, int tick){
+        EffectBudget budget = BUDGETS.get(player);
+        if(budget == null){
+            budget = new EffectBudget();
+            BUDGETS.put(player, budget);
+        }
+        if(tick-budget.intervalStart >= CAP_INTERVAL || tick < budget.intervalStart){
+            budget.intervalStart = tick;
+            budget.sent = 0;
+        }
+
+        int left = cap-budget.sent;
+        if(left <= 0){
+            return;
+        }
+
+        List<LaserEffect> effects = null;
+        Vec3d eyes = new Vec3d(player.posX, player.posY+player.getEyeHeight(), player.posZ);
+        Vec3d look = player.getLookVec();
+
+        search:
+        for(Map.Entry<ChunkPos, Set<LaserEffect>> entry : chunks.entrySet()){
+            ChunkPos chunk = entry.getKey();
+            //Chunks outside of the view distance aren't loaded on the client anyway
+            if(chunkMap.isPlayerWatchingChunk(player, chunk.x, chunk.z)){
+                for(LaserEffect effect : entry.getValue()){
+                    if(effect.isVisibleFrom(eyes, look)){
+                        if(effects == null){
+                            effects = new ArrayList<LaserEffect>();
+                        }
+                        effects.add(effect);
+
+                        if(effects.size() >= left){
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+
+        if(effects != null){
+            budget.sent += effects.size();
+            PacketHandler.theNetwork.sendTo(new PacketLaser(effects), player);
+        }
+    }
+
+    private static class EffectBudget{
+
+        public int intervalStart;
+        public int sent;
+    }
+
+    public static class LaserEffect{
+
+        public final double startX;
+        public final double startY;
+        public final double startZ;
+        public final double endX;
+        public final double endY;
+        public final double endZ;
+        public final float[] color;
+        public final int maxAge;
+        public final double rotationTime;
+        public final float size;
+        public final float alpha;
+
+        public LaserEffect(double startX, double startY, double startZ, double endX, double endY, double endZ, float[] color, int maxAge, double rotationTime, float size, float alpha){
+            this.startX = startX;
+            this.startY = startY;
+            this.startZ = startZ;
+            this.endX = endX;
+            this.endY = endY;
+            this.endZ = endZ;
+            this.color = color;
+            this.maxAge = maxAge;
+            this.rotationTime = rotationTime;
+            this.size = size;
+            this.alpha = alpha;
+        }
+
+        public static LaserEffect readFrom(ByteBuf buf){
+            return new LaserEffect(buf.readDouble(), buf.readDouble(), buf.readDouble(), buf.readDouble(), buf.readDouble(), buf.readDouble(), new float[]{buf.readFloat(), buf.readFloat(), buf.readFloat()}, buf.readInt(), buf.readDouble(), buf.readFloat(), buf.readFloat());
+        }
+
+        public void writeTo(ByteBuf buf){
+            buf.writeDouble(this.startX);
+            buf.writeDouble(this.startY);
+            buf.writeDouble(this.startZ);
+            buf.writeDouble(this.endX);
+            buf.writeDouble(this.endY);
+            buf.writeDouble(this.endZ);
+            buf.writeFloat(this.color[0]);
+            buf.writeFloat(this.color[1]);
+            buf.writeFloat(this.color[2]);
+            buf.writeInt(this.maxAge);
+            buf.writeDouble(this.rotationTime);
+            buf.writeFloat(this.size);
+            buf.writeFloat(this.alpha);
+        }
+
+        public boolean isVisibleFrom(Vec3d eyes, Vec3d look){
+            double startDistSq = eyes.squareDistanceTo(this.startX, this.startY, this.startZ);
+            double endDistSq = eyes.squareDistanceTo(this.endX, this.endY, this.endZ);
+            if(startDistSq > DISPLAY_RANGE_SQ && endDistSq > DISPLAY_RANGE_SQ){
+                return false;
+            }
+
+            if(startDistSq > BEHIND_RANGE_SQ && endDistSq > BEHIND_RANGE_SQ){
+                //The beam can only be seen if at least one of its ends is in front of the player
+                return isInFront(eyes, look, this.startX, this.startY, this.startZ) || isInFront(eyes, look, this.endX, this.endY, this.endZ);
+            }
+            return true;
+        }
+
+        private static boolean isInFront(Vec3d eyes, Vec3d look, double x, double y, double z){
+            return (x-eyes.x)*look.x+(y-eyes.y)*look.y+(z-eyes.z)*look.z >= 0;
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            if(obj instanceof LaserEffect){
+                LaserEffect effect = (LaserEffect)obj;
+                return this.startX == effect.startX && this.startY == effect.startY && this.startZ == effect.startZ && this.endX == effect.endX && this.endY == effect.endY && this.endZ == effect.endZ && Arrays.equals(this.color, effect.color) && this.maxAge == effect.maxAge && this.rotationTime == effect.rotationTime && this.size == effect.size && this.alpha == effect.alpha;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode(){
+            int hash = Double.hashCode(this.startX);
+            hash = hash*31+Double.hashCode(this.startY);
+            hash = hash*31+Double.hashCode(this.startZ);
+            hash = hash*31+Double.hashCode(this.endX);
+            hash = hash*31+Double.hashCode(this.endY);
+            hash = hash*31+Double.hashCode(this.endZ);
+            hash = hash*31+Arrays.hashCode(this.color);
+            return hash*31+this.maxAge;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file ("LaserParticleBatcher.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.DimensionManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the item particles of Item Interface transfers during a tick
+ * and sends them out as one packet per player at the end of it
+ */
+public final class LaserParticleBatcher{
+
+    public static final int INTS_PER_PARTICLE = 8;
+    private static final int RANGE_SQ = 16*16;
+    private static final Map<Integer, Set<ItemTransfer>> QUEUED_TRANSFERS = new HashMap<Integer, Set<ItemTransfer>>();
+
+    public static void queue(World world, ItemStack stack, BlockPos input, BlockPos output){
+        if(ConfigIntValues.ITEM_PARTICLE_CAP.getValue() > 0){
+            int dimension = world.provider.getDimension();
+            Set<ItemTransfer> transfers = QUEUED_TRANSFERS.get(dimension);
+            if(transfers == null){
+                transfers = new LinkedHashSet<ItemTransfer>();
+                QUEUED_TRANSFERS.put(dimension, transfers);
+            }
+            transfers.add(new ItemTransfer(Item.getIdFromItem(stack.getItem()), stack.getItemDamage(), input, output));
+        }
+    }
+
+    public static void flush(){
+        if(!QUEUED_TRANSFERS.isEmpty()){
+            int cap = ConfigIntValues.ITEM_PARTICLE_CAP.getValue();
+            for(Map.Entry<Integer, Set<ItemTransfer>> entry : QUEUED_TRANSFERS.entrySet()){
+                World world = DimensionManager.getWorld(entry.getKey());
+                if(world != null){
+                    for(EntityPlayer player : world.playerEntities){
+                        if(player instanceof EntityPlayerMP){
+                            sendTo((EntityPlayerMP)player, entry.getValue(), cap);
+                        }
+                    }
+                }
+            }
+            QUEUED_TRANSFERS.clear();
+        }
+    }
+
+    private static void sendTo(EntityPlayerMP player, Set<ItemTransfer> transfers, int cap){
+        int[] data = null;
+        int amount = 0;
+        for(ItemTransfer transfer : transfers){
+            if(player.getDistanceSq(transfer.input) <= RANGE_SQ || player.getDistanceSq(transfer.output) <= RANGE_SQ){
+                if(data == null){
+                    data = new int[Math.min(transfers.size(), cap)*INTS_PER_PARTICLE];
+                }
+                transfer.writeTo(data, amount*INTS_PER_PARTICLE);
+
+                amount++;
+                if(amount >= cap){
+                    break;
+                }
+            }
+        }
+
+        if(amount > 0){
+            int[] particles = data;
+            if(amount*INTS_PER_PARTICLE < data.length){
+                particles = new int[amount*INTS_PER_PARTICLE];
+                System.arraycopy(data, 0, particles, 0, particles.length);
+            }
+
+            PacketHandler.theNetwork.sendTo(new PacketLaserParticles(particles), player);
+        }
+    }
+
+    private static class ItemTransfer{
+
+        public final int itemId;
+        public final int meta;
+        public final BlockPos input;
+        public final BlockPos output;
+
+        public ItemTransfer(int itemId, int meta, BlockPos input, BlockPos output){
+            this.itemId = itemId;
+            this.meta = meta;
+            this.input = input;
+            this.output = output;
+        }
+
+        public void writeTo(int[] data, int offset){
+            data[offset] = this.itemId;
+            data[offset+1] = this.meta;
+            data[offset+2] = this.input.getX();
+            data[offset+3] = this.input.getY();
+            data[offset+4] = this.input.getZ();
+            data[offset+5] = this.output.getX();
+            data[offset+6] = this.output.getY();
+            data[offset+7] = this.output.getZ();
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            if(obj instanceof ItemTransfer){
+                ItemTransfer transfer = (ItemTransfer)obj;
+                return this.itemId == transfer.itemId && this.meta == transfer.meta && this.input.equals(transfer.input) && this.output.equals(transfer.output);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode(){
+            return ((this.itemId*31+this.meta)*31+this.input.hashCode())*31+this.output.hashCode();
+        }
+    }
+}
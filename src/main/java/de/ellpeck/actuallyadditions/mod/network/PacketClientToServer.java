@@ -54,7 +54,7 @@ public class PacketClientToServer implements IMessage{
         PacketBuffer buffer = new PacketBuffer(buf);
 
         buffer.writeCompoundTag(this.data);
-        buffer.writeInt(PacketHandler.DATA_HANDLERS.indexOf(this.handler));
+        buffer.writeInt(PacketHandler.getDataHandlerId(this.handler));
     }
 
     public static class Handler implements IMessageHandler<PacketClientToServer, IMessage>{
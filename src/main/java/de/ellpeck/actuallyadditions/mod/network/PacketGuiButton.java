@@ -0,0 +1,87 @@
+/*
+ * This file ("PacketGuiButton.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.Container;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * A button press in a GUI, either for the tile at a position or, if there is no position, for the open container
+ */
+public class PacketGuiButton implements IMessage{
+
+    private BlockPos pos;
+    private int buttonId;
+
+    public PacketGuiButton(){
+
+    }
+
+    public PacketGuiButton(BlockPos pos, int buttonId){
+        this.pos = pos;
+        this.buttonId = buttonId;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        if(buffer.readBoolean()){
+            this.pos = buffer.readBlockPos();
+        }
+        this.buttonId = buffer.readVarInt();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        buffer.writeBoolean(this.pos != null);
+        if(this.pos != null){
+            buffer.writeBlockPos(this.pos);
+        }
+        buffer.writeVarInt(this.buttonId);
+    }
+
+    public static class Handler implements IMessageHandler<PacketGuiButton, IMessage>{
+
+        @Override
+        public IMessage onMessage(final PacketGuiButton message, final MessageContext ctx){
+            final EntityPlayerMP player = ctx.getServerHandler().player;
+            player.getServerWorld().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    if(message.pos != null){
+                        if(player.world.isBlockLoaded(message.pos)){
+                            TileEntity tile = player.world.getTileEntity(message.pos);
+                            if(tile instanceof IButtonReactor){
+                                ((IButtonReactor)tile).onButtonPressed(message.buttonId, player);
+                            }
+                        }
+                    }
+                    else{
+                        Container container = player.openContainer;
+                        if(container instanceof IButtonReactor){
+                            ((IButtonReactor)container).onButtonPressed(message.buttonId, player);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file ("PacketGuiNumber.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.network.gui.INumberReactor;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * A number that was entered into the GUI of the tile at a position
+ */
+public class PacketGuiNumber implements IMessage{
+
+    private BlockPos pos;
+    private int numberId;
+    private double number;
+
+    public PacketGuiNumber(){
+
+    }
+
+    public PacketGuiNumber(BlockPos pos, int numberId, double number){
+        this.pos = pos;
+        this.numberId = numberId;
+        this.number = number;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        this.pos = buffer.readBlockPos();
+        this.numberId = buffer.readVarInt();
+        this.number = buffer.readDouble();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        buffer.writeBlockPos(this.pos);
+        buffer.writeVarInt(this.numberId);
+        buffer.writeDouble(this.number);
+    }
+
+    public static class Handler implements IMessageHandler<PacketGuiNumber, IMessage>{
+
+        @Override
+        public IMessage onMessage(final PacketGuiNumber message, final MessageContext ctx){
+            final EntityPlayerMP player = ctx.getServerHandler().player;
+            player.getServerWorld().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    if(player.world.isBlockLoaded(message.pos)){
+                        TileEntity tile = player.world.getTileEntity(message.pos);
+                        if(tile instanceof INumberReactor){
+                            ((INumberReactor)tile).onNumberReceived(message.number, message.numberId, player);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
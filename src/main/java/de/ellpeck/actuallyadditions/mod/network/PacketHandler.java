@@ -16,15 +16,13 @@ import de.ellpeck.actuallyadditions.mod.data.WorldData;
 import de.ellpeck.actuallyadditions.mod.network.gui.IButtonReactor;
 import de.ellpeck.actuallyadditions.mod.network.gui.INumberReactor;
 import de.ellpeck.actuallyadditions.mod.network.gui.IStringReactor;
-import de.ellpeck.actuallyadditions.mod.particle.ParticleLaserItem;
+import de.ellpeck.actuallyadditions.mod.tile.SyncInterest;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
 import de.ellpeck.actuallyadditions.mod.util.AssetUtil;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.particle.Particle;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.Container;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -37,11 +35,14 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class PacketHandler{
 
     public static final List<IDataHandler> DATA_HANDLERS = new ArrayList<IDataHandler>();
+    private static final Map<IDataHandler, Integer> DATA_HANDLER_IDS = new IdentityHashMap<IDataHandler, Integer>();
     public static final IDataHandler LASER_HANDLER = new IDataHandler(){
         @Override
         @SideOnly(Side.CLIENT)
@@ -57,7 +58,7 @@ public final class PacketHandler{
             if(world != null){
                 TileEntity tile = world.getTileEntity(new BlockPos(compound.getInteger("X"), compound.getInteger("Y"), compound.getInteger("Z")));
                 if(tile instanceof TileEntityBase){
-                    ((TileEntityBase)tile).readSyncableNBT(compound.getCompoundTag("Data"), TileEntityBase.NBTType.SYNC);
+                    ((TileEntityBase)tile).receiveSyncData(compound.getCompoundTag("Data"), compound.getBoolean("OnlyChanges"), SyncInterest.GUI);
                 }
             }
         }
@@ -66,19 +67,7 @@ public final class PacketHandler{
         @Override
         @SideOnly(Side.CLIENT)
         public void handleData(NBTTagCompound compound, MessageContext context){
-            Minecraft mc = Minecraft.getMinecraft();
-            ItemStack stack = new ItemStack(compound);
-
-            double inX = compound.getDouble("InX")+0.5;
-            double inY = compound.getDouble("InY")+0.78;
-            double inZ = compound.getDouble("InZ")+0.5;
-
-            double outX = compound.getDouble("OutX")+0.5;
-            double outY = compound.getDouble("OutY")+0.525;
-            double outZ = compound.getDouble("OutZ")+0.5;
-
-            Particle fx = new ParticleLaserItem(mc.world, outX, outY, outZ, stack, 0.025, inX, inY, inZ);
-            mc.effectRenderer.addEffect(fx);
+            PacketLaserParticles.spawnParticles(compound.getIntArray("Particles"));
         }
     };
     public static final IDataHandler GUI_BUTTON_TO_TILE_HANDLER = new IDataHandler(){
@@ -185,6 +174,12 @@ public final class PacketHandler{
             }
         }
     };
+    public static final IDataHandler LASER_EFFECT_SETTING_TO_SERVER = new IDataHandler(){
+        @Override
+        public void handleData(NBTTagCompound compound, MessageContext context){
+            LaserEffectDispatcher.setEffectsEnabled(context.getServerHandler().player, compound.getBoolean("Enabled"));
+        }
+    };
 
     public static SimpleNetworkWrapper theNetwork;
 
@@ -192,15 +187,32 @@ public final class PacketHandler{
         theNetwork = NetworkRegistry.INSTANCE.newSimpleChannel(ActuallyAdditions.MODID);
         theNetwork.registerMessage(PacketServerToClient.Handler.class, PacketServerToClient.class, 0, Side.CLIENT);
         theNetwork.registerMessage(PacketClientToServer.Handler.class, PacketClientToServer.class, 1, Side.SERVER);
+        theNetwork.registerMessage(PacketLaser.Handler.class, PacketLaser.class, 2, Side.CLIENT);
+        theNetwork.registerMessage(PacketLaserParticles.Handler.class, PacketLaserParticles.class, 3, Side.CLIENT);
+        theNetwork.registerMessage(PacketTileSync.Handler.class, PacketTileSync.class, 4, Side.CLIENT);
+        theNetwork.registerMessage(PacketGuiButton.Handler.class, PacketGuiButton.class, 5, Side.SERVER);
+        theNetwork.registerMessage(PacketGuiNumber.Handler.class, PacketGuiNumber.class, 6, Side.SERVER);
+
+        //The data handlers are still used for everything that isn't sent often enough to need its own packet
+        registerDataHandler(LASER_HANDLER);
+        registerDataHandler(TILE_ENTITY_HANDLER);
+        registerDataHandler(GUI_BUTTON_TO_TILE_HANDLER);
+        registerDataHandler(GUI_STRING_TO_TILE_HANDLER);
+        registerDataHandler(GUI_NUMBER_TO_TILE_HANDLER);
+        registerDataHandler(SYNC_PLAYER_DATA);
+        registerDataHandler(GUI_BUTTON_TO_CONTAINER_HANDLER);
+        registerDataHandler(LASER_PARTICLE_HANDLER);
+        registerDataHandler(PLAYER_DATA_TO_SERVER);
+        registerDataHandler(LASER_EFFECT_SETTING_TO_SERVER);
+    }
+
+    private static void registerDataHandler(IDataHandler handler){
+        DATA_HANDLER_IDS.put(handler, DATA_HANDLERS.size());
+        DATA_HANDLERS.add(handler);
+    }
 
-        DATA_HANDLERS.add(LASER_HANDLER);
-        DATA_HANDLERS.add(TILE_ENTITY_HANDLER);
-        DATA_HANDLERS.add(GUI_BUTTON_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(GUI_STRING_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(GUI_NUMBER_TO_TILE_HANDLER);
-        DATA_HANDLERS.add(SYNC_PLAYER_DATA);
-        DATA_HANDLERS.add(GUI_BUTTON_TO_CONTAINER_HANDLER);
-        DATA_HANDLERS.add(LASER_PARTICLE_HANDLER);
-        DATA_HANDLERS.add(PLAYER_DATA_TO_SERVER);
+    public static int getDataHandlerId(IDataHandler handler){
+        Integer id = DATA_HANDLER_IDS.get(handler);
+        return id != null ? id : -1;
     }
 }
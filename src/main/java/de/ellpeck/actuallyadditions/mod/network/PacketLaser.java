@@ -0,0 +1,78 @@
+/*
+ * This file ("PacketLaser.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
+import de.ellpeck.actuallyadditions.mod.network.LaserEffectDispatcher.LaserEffect;
+import de.ellpeck.actuallyadditions.mod.util.AssetUtil;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The laser beams to be displayed on the client during a tick, written with a fixed layout instead of named NBT tags
+ */
+public class PacketLaser implements IMessage{
+
+    private List<LaserEffect> effects;
+
+    public PacketLaser(){
+
+    }
+
+    public PacketLaser(List<LaserEffect> effects){
+        this.effects = effects;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        int amount = ByteBufUtils.readVarInt(buf, 5);
+        this.effects = new ArrayList<LaserEffect>(amount);
+        for(int i = 0; i < amount; i++){
+            this.effects.add(LaserEffect.readFrom(buf));
+        }
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        ByteBufUtils.writeVarInt(buf, this.effects.size(), 5);
+        for(LaserEffect effect : this.effects){
+            effect.writeTo(buf);
+        }
+    }
+
+    public static class Handler implements IMessageHandler<PacketLaser, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketLaser message, final MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    if(ConfigBoolValues.LASER_BEAM_EFFECTS.isEnabled()){
+                        for(LaserEffect effect : message.effects){
+                            AssetUtil.spawnLaserWithTimeClient(effect.startX, effect.startY, effect.startZ, effect.endX, effect.endY, effect.endZ, effect.color, effect.maxAge, effect.rotationTime, effect.size, effect.alpha);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
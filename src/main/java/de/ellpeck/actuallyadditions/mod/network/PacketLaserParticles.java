@@ -0,0 +1,89 @@
+/*
+ * This file ("PacketLaserParticles.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.particle.ParticleLaserItem;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.particle.Particle;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * The item particles of Item Interface transfers, see LaserParticleBatcher for the layout
+ */
+public class PacketLaserParticles implements IMessage{
+
+    private int[] particles;
+
+    public PacketLaserParticles(){
+
+    }
+
+    public PacketLaserParticles(int[] particles){
+        this.particles = particles;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        this.particles = new PacketBuffer(buf).readVarIntArray();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        new PacketBuffer(buf).writeVarIntArray(this.particles);
+    }
+
+    @SideOnly(Side.CLIENT)
+    public static void spawnParticles(int[] particles){
+        Minecraft mc = Minecraft.getMinecraft();
+        for(int i = 0; i+LaserParticleBatcher.INTS_PER_PARTICLE <= particles.length; i += LaserParticleBatcher.INTS_PER_PARTICLE){
+            Item item = Item.getItemById(particles[i]);
+            if(item != null){
+                ItemStack stack = new ItemStack(item, 1, particles[i+1]);
+
+                double inX = particles[i+2]+0.5;
+                double inY = particles[i+3]+0.78;
+                double inZ = particles[i+4]+0.5;
+
+                double outX = particles[i+5]+0.5;
+                double outY = particles[i+6]+0.525;
+                double outZ = particles[i+7]+0.5;
+
+                Particle fx = new ParticleLaserItem(mc.world, outX, outY, outZ, stack, 0.025, inX, inY, inZ);
+                mc.effectRenderer.addEffect(fx);
+            }
+        }
+    }
+
+    public static class Handler implements IMessageHandler<PacketLaserParticles, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketLaserParticles message, final MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    if(message.particles != null){
+                        spawnParticles(message.particles);
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -56,7 +56,7 @@ public class PacketServerToClient implements IMessage{
         PacketBuffer buffer = new PacketBuffer(buf);
 
         buffer.writeCompoundTag(this.data);
-        buffer.writeInt(PacketHandler.DATA_HANDLERS.indexOf(this.handler));
+        buffer.writeInt(PacketHandler.getDataHandlerId(this.handler));
     }
 
     public static class Handler implements IMessageHandler<PacketServerToClient, IMessage>{
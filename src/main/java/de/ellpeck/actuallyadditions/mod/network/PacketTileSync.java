@@ -0,0 +1,93 @@
+/*
+ * This file ("PacketTileSync.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.network;
+
+import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
+import de.ellpeck.actuallyadditions.mod.tile.SyncInterest;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * The sync data of a tile, sent by TileEntityBase.sendUpdate
+ */
+public class PacketTileSync implements IMessage{
+
+    private BlockPos pos;
+    private boolean onlyChanges;
+    private SyncInterest interest;
+    private NBTTagCompound data;
+
+    public PacketTileSync(){
+
+    }
+
+    public PacketTileSync(BlockPos pos, boolean onlyChanges, SyncInterest interest, NBTTagCompound data){
+        this.pos = pos;
+        this.onlyChanges = onlyChanges;
+        this.interest = interest;
+        this.data = data;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        try{
+            this.pos = buffer.readBlockPos();
+            this.onlyChanges = buffer.readBoolean();
+            this.interest = buffer.readEnumValue(SyncInterest.class);
+            this.data = buffer.readCompoundTag();
+        }
+        catch(Exception e){
+            ActuallyAdditions.LOGGER.error("Something went wrong trying to receive a tile sync packet!", e);
+        }
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf){
+        PacketBuffer buffer = new PacketBuffer(buf);
+        buffer.writeBlockPos(this.pos);
+        buffer.writeBoolean(this.onlyChanges);
+        buffer.writeEnumValue(this.interest);
+        buffer.writeCompoundTag(this.data);
+    }
+
+    public static class Handler implements IMessageHandler<PacketTileSync, IMessage>{
+
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(final PacketTileSync message, final MessageContext ctx){
+            Minecraft.getMinecraft().addScheduledTask(new Runnable(){
+                @Override
+                public void run(){
+                    World world = Minecraft.getMinecraft().world;
+                    if(world != null && message.pos != null && message.data != null){
+                        TileEntity tile = world.getTileEntity(message.pos);
+                        if(tile instanceof TileEntityBase){
+                            ((TileEntityBase)tile).receiveSyncData(message.data, message.onlyChanges, message.interest);
+                        }
+                    }
+                }
+            });
+            return null;
+        }
+    }
+}
@@ -11,15 +11,24 @@
 package de.ellpeck.actuallyadditions.mod.recipe;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.CrusherRecipe;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigStringListValues;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
 import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.OreIngredient;
 
@@ -28,27 +37,31 @@ public final class CrusherRecipeRegistry{
 
     public static final ArrayList<SearchCase> SEARCH_CASES = new ArrayList<>();
 
+    private static final CrusherRecipe NO_RECIPE = new CrusherRecipe(Ingredient.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, 0);
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Long2ObjectMap<CrusherRecipe> LOOKUP_CACHE = new Long2ObjectOpenHashMap<>();
+    private static int cachedModCount = -1;
+
     public static void registerFinally(){
-        ArrayList<String> oresNoResult = new ArrayList<String>();
+        long startTime = System.nanoTime();
+        Set<String> oresNoResult = new LinkedHashSet<String>();
         int recipeStartedAt = ActuallyAdditionsAPI.CRUSHER_RECIPES.size();
 
+        SearchCaseNode trie = buildSearchCaseTrie();
+        List<SearchCase> matchingCases = new ArrayList<SearchCase>();
         for(String ore : OreDictionary.getOreNames()){
             if(!hasException(ore)){
-                for(SearchCase theCase : SEARCH_CASES){
-                    if(ore.length() > theCase.theCase.length()){
-                        if(ore.substring(0, theCase.theCase.length()).equals(theCase.theCase)){
-                            String outputOre = theCase.resultPreString+ore.substring(theCase.theCase.length());
-                            List<ItemStack> outputs = OreDictionary.getOres(outputOre, false);
-                            ItemStack output = outputs.isEmpty() ? ItemStack.EMPTY : outputs.get(0).copy();
-                            output.setCount(theCase.resultAmount);
-                            if(output.isEmpty()){
-                                if(!oresNoResult.contains(ore)){
-                                    oresNoResult.add(ore);
-                                }
-                            } else ActuallyAdditionsAPI.addCrusherRecipe(new OreIngredient(ore), output, StackUtil.getEmpty(), 0);
-                        }
-                    }
+                trie.collectMatches(ore, matchingCases);
+                for(SearchCase theCase : matchingCases){
+                    String outputOre = theCase.resultPreString+ore.substring(theCase.theCase.length());
+                    List<ItemStack> outputs = OreDictionary.getOres(outputOre, false);
+                    ItemStack output = outputs.isEmpty() ? ItemStack.EMPTY : outputs.get(0).copy();
+                    output.setCount(theCase.resultAmount);
+                    if(output.isEmpty()){
+                        oresNoResult.add(ore);
+                    } else ActuallyAdditionsAPI.addCrusherRecipe(new OreIngredient(ore), output, StackUtil.getEmpty(), 0);
                 }
+                matchingCases.clear();
             }
         }
 
@@ -60,27 +73,81 @@ public final class CrusherRecipeRegistry{
         ActuallyAdditions.LOGGER.debug("Added "+addedRecipes.size()+" Crusher Recipes automatically: "+addedRecipes);
         ActuallyAdditions.LOGGER.debug("Couldn't add "+oresNoResult.size()+" Crusher Recipes automatically, either because the inputs were missing outputs, or because they exist already: "+oresNoResult);
         removeDuplicateRecipes();
+
+        ActuallyAdditions.LOGGER.info("Finished registering Crusher Recipes from the Ore Dictionary in "+(System.nanoTime()-startTime)/1000000+"ms.");
     }
-    
+
+    /**
+     * Builds a prefix tree of all search cases so that every ore name only has to be walked through once
+     */
+    private static SearchCaseNode buildSearchCaseTrie(){
+        SearchCaseNode root = new SearchCaseNode();
+        for(SearchCase theCase : SEARCH_CASES){
+            SearchCaseNode node = root;
+            for(int i = 0; i < theCase.theCase.length(); i++){
+                char c = theCase.theCase.charAt(i);
+                SearchCaseNode child = node.children.get(c);
+                if(child == null){
+                    child = new SearchCaseNode();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.cases.add(theCase);
+        }
+        return root;
+    }
+
     public static void removeDuplicateRecipes() {
         ArrayList<CrusherRecipe> usable = new ArrayList<>();
         ArrayList<CrusherRecipe> removed = new ArrayList<>();
+
+        //The kept recipes by the item and meta of their matching stacks, so only those have to be checked against
+        Map<Item, Int2ObjectMap<List<CrusherRecipe>>> usableByStack = new HashMap<>();
         for(CrusherRecipe r : ActuallyAdditionsAPI.CRUSHER_RECIPES) {
             boolean canUse = true;
-            if(r.getInput().getMatchingStacks().length == 0) canUse = false;
-            else for(CrusherRecipe re : usable) {
-                if(re.getInput().apply(r.getInput().getMatchingStacks()[0])) canUse = false;
+            ItemStack[] stacks = r.getInput().getMatchingStacks();
+            if(stacks.length == 0) canUse = false;
+            else {
+                Int2ObjectMap<List<CrusherRecipe>> byMeta = usableByStack.get(stacks[0].getItem());
+                if(byMeta != null) {
+                    canUse = !anyApplies(byMeta.get(stacks[0].getMetadata()), stacks[0]) && !anyApplies(byMeta.get(OreDictionary.WILDCARD_VALUE), stacks[0]);
+                }
+            }
+
+            if(canUse) {
+                usable.add(r);
+                for(ItemStack stack : stacks) {
+                    Int2ObjectMap<List<CrusherRecipe>> byMeta = usableByStack.get(stack.getItem());
+                    if(byMeta == null) {
+                        byMeta = new Int2ObjectOpenHashMap<>();
+                        usableByStack.put(stack.getItem(), byMeta);
+                    }
+                    List<CrusherRecipe> recipes = byMeta.get(stack.getMetadata());
+                    if(recipes == null) {
+                        recipes = new ArrayList<>();
+                        byMeta.put(stack.getMetadata(), recipes);
+                    }
+                    if(recipes.isEmpty() || recipes.get(recipes.size()-1) != r) recipes.add(r);
+                }
             }
-            
-            if(canUse) usable.add(r);
             else removed.add(r);
         }
-        
+
         ActuallyAdditionsAPI.CRUSHER_RECIPES.clear();
         ActuallyAdditionsAPI.CRUSHER_RECIPES.addAll(usable);
         ActuallyAdditions.LOGGER.debug(String.format("Removed %s crusher recipes that had dupliate inputs, %s remain.", removed.size(), usable.size()));
        }
 
+    private static boolean anyApplies(List<CrusherRecipe> recipes, ItemStack stack) {
+        if(recipes != null) {
+            for(CrusherRecipe recipe : recipes) {
+                if(recipe.getInput().apply(stack)) return true;
+            }
+        }
+        return false;
+    }
+
     public static boolean hasBlacklistedOutput(ItemStack output, String[] config){
         if(StackUtil.isValid(output)){
             Item item = output.getItem();
@@ -122,10 +189,60 @@ public final class CrusherRecipeRegistry{
         return false;
     }
 
-    public static CrusherRecipe getRecipeFromInput(ItemStack input){
-        for(CrusherRecipe recipe : ActuallyAdditionsAPI.CRUSHER_RECIPES)
-            if(recipe.matches(input)) return recipe;
-        return null;
+    public static synchronized CrusherRecipe getRecipeFromInput(ItemStack input){
+        if(!StackUtil.isValid(input)){
+            return null;
+        }
+
+        if(cachedModCount != RecipeIndexes.CRUSHER.getModCount()){
+            LOOKUP_CACHE.clear();
+            cachedModCount = RecipeIndexes.CRUSHER.getModCount();
+        }
+
+        //Inputs with NBT can't be remembered by item and meta alone
+        boolean canCache = !input.hasTagCompound();
+        long key = 0;
+        if(canCache){
+            key = ((long)Item.getIdFromItem(input.getItem()) << 32) | (input.getMetadata() & 0xFFFFFFFFL);
+            CrusherRecipe cached = LOOKUP_CACHE.get(key);
+            if(cached != null){
+                return cached == NO_RECIPE ? null : cached;
+            }
+        }
+
+        CrusherRecipe found = RecipeIndexes.CRUSHER.find(input, CrusherRecipe::matches);
+
+        if(canCache){
+            if(LOOKUP_CACHE.size() >= MAX_CACHE_SIZE){
+                LOOKUP_CACHE.clear();
+            }
+            LOOKUP_CACHE.put(key, found != null ? found : NO_RECIPE);
+        }
+        return found;
+    }
+
+    private static class SearchCaseNode{
+
+        final Map<Character, SearchCaseNode> children = new HashMap<>();
+        final List<SearchCase> cases = new ArrayList<>();
+
+        /**
+         * Collects all search cases that the ore name starts with (but isn't equal to), in the order they were added
+         */
+        void collectMatches(String ore, List<SearchCase> matches){
+            SearchCaseNode node = this;
+            for(int i = 0; i < ore.length()-1; i++){
+                node = node.children.get(ore.charAt(i));
+                if(node == null){
+                    break;
+                }
+                matches.addAll(node.cases);
+            }
+
+            if(matches.size() > 1){
+                matches.sort((a, b) -> Integer.compare(SEARCH_CASES.indexOf(a), SEARCH_CASES.indexOf(b)));
+            }
+        }
     }
 
     public static class SearchCase{
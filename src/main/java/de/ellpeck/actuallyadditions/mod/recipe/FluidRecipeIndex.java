@@ -0,0 +1,49 @@
+/*
+ * This file ("FluidRecipeIndex.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps fluid names to the first recipe in the list that uses them.
+ */
+public class FluidRecipeIndex<T> extends RecipeLookup<T>{
+
+    private final Function<T, String> fluidName;
+    private final Map<String, T> recipesByFluid = new HashMap<>();
+
+    public FluidRecipeIndex(String name, List<T> recipes, Function<T, String> fluidName){
+        super(name, recipes);
+        this.fluidName = fluidName;
+    }
+
+    public synchronized T find(String fluidName){
+        if(fluidName == null){
+            return null;
+        }
+
+        this.buildIfChanged();
+        return this.count(this.recipesByFluid.get(fluidName));
+    }
+
+    @Override
+    protected void build(){
+        this.recipesByFluid.clear();
+        for(T recipe : this.recipes){
+            if(recipe != null){
+                this.recipesByFluid.putIfAbsent(this.fluidName.apply(recipe), recipe);
+            }
+        }
+    }
+}
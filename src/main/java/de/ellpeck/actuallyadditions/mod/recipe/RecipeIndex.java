@@ -0,0 +1,102 @@
+/*
+ * This file ("RecipeIndex.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Buckets the recipes of a RecipeList by the items their input can match so that lookups
+ * only have to check a few candidates. The buckets are rebuilt whenever the list changes.
+ */
+public class RecipeIndex<T> extends RecipeLookup<T>{
+
+    private final Function<T, Ingredient> input;
+
+    private Map<Item, List<T>> recipesByItem = Collections.emptyMap();
+    private List<T> unindexedRecipes = Collections.emptyList();
+
+    public RecipeIndex(String name, List<T> recipes, Function<T, Ingredient> input){
+        super(name, recipes);
+        this.input = input;
+    }
+
+    /**
+     * Returns the first recipe in the order of the recipe list that the matcher accepts for the stack
+     */
+    public synchronized T find(ItemStack stack, BiPredicate<T, ItemStack> matcher){
+        for(T recipe : this.getCandidates(stack)){
+            if(matcher.test(recipe, stack)){
+                return this.count(recipe);
+            }
+        }
+        return this.count(null);
+    }
+
+    /**
+     * Returns every recipe whose input might match the stack, in the order of the recipe list.
+     * The candidates still need to be checked, and the returned list must not be modified.
+     */
+    public synchronized List<T> getCandidates(ItemStack stack){
+        if(!StackUtil.isValid(stack)){
+            return Collections.emptyList();
+        }
+
+        this.buildIfChanged();
+        List<T> candidates = this.recipesByItem.get(stack.getItem());
+        return candidates != null ? candidates : this.unindexedRecipes;
+    }
+
+    //Fresh lists are built so that candidates handed out earlier are never changed underneath their users
+    @Override
+    protected void build(){
+        Map<Item, List<T>> recipesByItem = new HashMap<>();
+        List<T> unindexedRecipes = new ArrayList<>();
+
+        for(T recipe : this.recipes){
+            ItemStack[] stacks = this.input.apply(recipe).getMatchingStacks();
+            //Ingredients that don't know their stacks have to be checked for every input
+            if(stacks.length <= 0){
+                unindexedRecipes.add(recipe);
+                for(List<T> bucket : recipesByItem.values()){
+                    bucket.add(recipe);
+                }
+            }
+            else{
+                for(ItemStack stack : stacks){
+                    if(StackUtil.isValid(stack)){
+                        List<T> bucket = recipesByItem.get(stack.getItem());
+                        if(bucket == null){
+                            bucket = new ArrayList<>(unindexedRecipes);
+                            recipesByItem.put(stack.getItem(), bucket);
+                        }
+                        if(bucket.isEmpty() || bucket.get(bucket.size()-1) != recipe){
+                            bucket.add(recipe);
+                        }
+                    }
+                }
+            }
+        }
+
+        this.recipesByItem = recipesByItem;
+        this.unindexedRecipes = unindexedRecipes;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file ("RecipeIndexes.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
+import de.ellpeck.actuallyadditions.api.recipe.BallOfFurReturn;
+import de.ellpeck.actuallyadditions.api.recipe.CoffeeIngredient;
+import de.ellpeck.actuallyadditions.api.recipe.CompostRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.CrusherRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.EmpowererRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.LensConversionRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.OilGenRecipe;
+import de.ellpeck.actuallyadditions.api.recipe.TreasureChestLoot;
+import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All of the lookup tables that machines use to find their recipes in the lists of ActuallyAdditionsAPI
+ */
+public final class RecipeIndexes{
+
+    public static final RecipeIndex<CrusherRecipe> CRUSHER = new RecipeIndex<>("Crusher", ActuallyAdditionsAPI.CRUSHER_RECIPES, CrusherRecipe::getInput);
+    public static final RecipeIndex<EmpowererRecipe> EMPOWERER = new RecipeIndex<>("Empowerer", ActuallyAdditionsAPI.EMPOWERER_RECIPES, EmpowererRecipe::getInput);
+    public static final RecipeIndex<LensConversionRecipe> LENS_CONVERSION = new RecipeIndex<>("Lens Conversion", ActuallyAdditionsAPI.RECONSTRUCTOR_LENS_CONVERSION_RECIPES, LensConversionRecipe::getInput);
+    public static final RecipeIndex<CompostRecipe> COMPOST = new RecipeIndex<>("Compost", ActuallyAdditionsAPI.COMPOST_RECIPES, CompostRecipe::getInput);
+    public static final RecipeIndex<CoffeeIngredient> COFFEE = new RecipeIndex<>("Coffee", ActuallyAdditionsAPI.COFFEE_MACHINE_INGREDIENTS, CoffeeIngredient::getInput);
+    public static final FluidRecipeIndex<OilGenRecipe> OIL_GENERATOR = new FluidRecipeIndex<>("Oil Generator", ActuallyAdditionsAPI.OIL_GENERATOR_RECIPES, recipe -> recipe.fluidName);
+    public static final WeightedRecipeTable<BallOfFurReturn> BALL_OF_FUR = new WeightedRecipeTable<>("Ball of Fur", ActuallyAdditionsAPI.BALL_OF_FUR_RETURN_ITEMS);
+    public static final WeightedRecipeTable<TreasureChestLoot> TREASURE_CHEST = new WeightedRecipeTable<>("Treasure Chest", ActuallyAdditionsAPI.TREASURE_CHEST_LOOT);
+
+    public static final List<RecipeLookup<?>> ALL = Arrays.asList(CRUSHER, EMPOWERER, LENS_CONVERSION, COMPOST, COFFEE, OIL_GENERATOR, BALL_OF_FUR, TREASURE_CHEST);
+
+    public static void logStatistics(){
+        for(RecipeLookup<?> lookup : ALL){
+            long hits = lookup.getHits();
+            long misses = lookup.getMisses();
+            if(hits > 0 || misses > 0){
+                ActuallyAdditions.LOGGER.debug(lookup.getName()+" recipe lookups: "+hits+" found, "+misses+" not found.");
+            }
+        }
+    }
+}
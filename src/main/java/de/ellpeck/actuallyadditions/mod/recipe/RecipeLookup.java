@@ -0,0 +1,70 @@
+/*
+ * This file ("RecipeLookup.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import de.ellpeck.actuallyadditions.api.recipe.RecipeList;
+
+import java.util.List;
+
+/**
+ * A lookup table built from one of the recipe lists in ActuallyAdditionsAPI.
+ * It gets rebuilt the next time it is used after the list has been changed,
+ * and it counts how many of its lookups found something.
+ */
+public abstract class RecipeLookup<T>{
+
+    protected final String name;
+    protected final RecipeList<T> recipes;
+
+    private int builtModCount = -1;
+    private long hits;
+    private long misses;
+
+    public RecipeLookup(String name, List<T> recipes){
+        this.name = name;
+        this.recipes = (RecipeList<T>)recipes;
+    }
+
+    protected abstract void build();
+
+    protected final void buildIfChanged(){
+        if(this.builtModCount != this.recipes.getModCount()){
+            this.build();
+            this.builtModCount = this.recipes.getModCount();
+        }
+    }
+
+    protected final <R> R count(R found){
+        if(found != null){
+            this.hits++;
+        }
+        else{
+            this.misses++;
+        }
+        return found;
+    }
+
+    public int getModCount(){
+        return this.recipes.getModCount();
+    }
+
+    public String getName(){
+        return this.name;
+    }
+
+    public synchronized long getHits(){
+        return this.hits;
+    }
+
+    public synchronized long getMisses(){
+        return this.misses;
+    }
+}
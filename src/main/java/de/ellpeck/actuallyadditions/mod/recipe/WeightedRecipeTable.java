@@ -0,0 +1,65 @@
+/*
+ * This file ("WeightedRecipeTable.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.recipe;
+
+import net.minecraft.util.WeightedRandom;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Adds up the weights of a list once so that a random entry can be picked with a binary search
+ * instead of adding them up and walking the list every time.
+ */
+public class WeightedRecipeTable<T extends WeightedRandom.Item> extends RecipeLookup<T>{
+
+    private Object[] entries = new Object[0];
+    private int[] cumulativeWeights = new int[0];
+    private int totalWeight;
+
+    public WeightedRecipeTable(String name, List<T> recipes){
+        super(name, recipes);
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized T getRandom(Random rand){
+        this.buildIfChanged();
+        if(this.totalWeight <= 0){
+            return this.count(null);
+        }
+
+        int index = Arrays.binarySearch(this.cumulativeWeights, rand.nextInt(this.totalWeight)+1);
+        return this.count((T)this.entries[index >= 0 ? index : -index-1]);
+    }
+
+    @Override
+    protected void build(){
+        Object[] entries = new Object[this.recipes.size()];
+        int[] cumulativeWeights = new int[this.recipes.size()];
+        int amount = 0;
+        int totalWeight = 0;
+
+        //Entries without weight could never be picked and would break the binary search
+        for(T entry : this.recipes){
+            if(entry.itemWeight > 0){
+                totalWeight += entry.itemWeight;
+                entries[amount] = entry;
+                cumulativeWeights[amount] = totalWeight;
+                amount++;
+            }
+        }
+
+        this.entries = Arrays.copyOf(entries, amount);
+        this.cumulativeWeights = Arrays.copyOf(cumulativeWeights, amount);
+        this.totalWeight = totalWeight;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * This file ("SyncInterest.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.tile;
+
+/**
+ * Who needs to know about a top level tag of a tile's sync data.
+ * Every level also gets the tags of the levels before it.
+ */
+public enum SyncInterest{
+
+    //Everyone that has the chunk loaded, for things that change how the tile looks in the world
+    WORLD,
+    //Players looking at the tile, for things only shown in HUDs
+    HUD,
+    //Players that have the tile's GUI open
+    GUI;
+
+    public boolean includes(SyncInterest interest){
+        return this.ordinal() >= interest.ordinal();
+    }
+}
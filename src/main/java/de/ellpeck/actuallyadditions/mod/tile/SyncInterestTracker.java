@@ -0,0 +1,68 @@
+/*
+ * This file ("SyncInterestTracker.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.tile;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.Container;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of which tile every player has open or is looking at on the server
+ * so that TileEntityBase.sendUpdate knows how much of the sync data they need
+ */
+public final class SyncInterestTracker{
+
+    public static final int LOOK_CHECK_INTERVAL = 5;
+    private static final double LOOK_RANGE = 8;
+
+    private static final Map<Container, TileEntityBase> CONTAINER_TILES = new WeakHashMap<Container, TileEntityBase>();
+    private static final Map<EntityPlayerMP, BlockPos> LOOKED_AT_POSITIONS = new WeakHashMap<EntityPlayerMP, BlockPos>();
+
+    public static void onContainerOpened(Container container, TileEntityBase tile){
+        CONTAINER_TILES.put(container, tile);
+        //The player hasn't been sent what only the GUI shows yet
+        tile.queueUpdate();
+    }
+
+    public static void updateLookedAtPosition(EntityPlayerMP player){
+        Vec3d eyes = new Vec3d(player.posX, player.posY+player.getEyeHeight(), player.posZ);
+        Vec3d end = eyes.add(player.getLookVec().scale(LOOK_RANGE));
+        RayTraceResult result = player.world.rayTraceBlocks(eyes, end, false, true, false);
+
+        BlockPos pos = result != null && result.typeOfHit == RayTraceResult.Type.BLOCK ? result.getBlockPos() : null;
+        BlockPos lastPos = pos != null ? LOOKED_AT_POSITIONS.put(player, pos) : LOOKED_AT_POSITIONS.remove(player);
+
+        if(pos != null && !pos.equals(lastPos)){
+            TileEntity tile = player.world.getTileEntity(pos);
+            if(tile instanceof TileEntityBase){
+                ((TileEntityBase)tile).queueUpdate();
+            }
+        }
+    }
+
+    public static SyncInterest getInterest(EntityPlayerMP player, TileEntityBase tile){
+        if(CONTAINER_TILES.get(player.openContainer) == tile){
+            return SyncInterest.GUI;
+        }
+        else if(tile.getPos().equals(LOOKED_AT_POSITIONS.get(player))){
+            return SyncInterest.HUD;
+        }
+        else{
+            return SyncInterest.WORLD;
+        }
+    }
+}
@@ -13,13 +13,19 @@ package de.ellpeck.actuallyadditions.mod.tile;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntValues;
 import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
-import de.ellpeck.actuallyadditions.mod.network.PacketServerToClient;
+import de.ellpeck.actuallyadditions.mod.network.PacketTileSync;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
@@ -27,18 +33,29 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 public abstract class TileEntityBase extends TileEntity implements ITickable{
 
+    //Tiles that sync at the end of the current tick, so that many changes during one tick only cause one update
+    private static final Set<TileEntityBase> QUEUED_UPDATES = new LinkedHashSet<TileEntityBase>();
+    private static long queuedUpdateRequests;
+    private static long sentQueuedUpdates;
+
     public final String name;
     public boolean isRedstonePowered;
     public boolean isPulseMode;
@@ -47,6 +64,17 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
     protected TileEntity[] tilesAround = new TileEntity[6];
     protected boolean hasSavedDataOnChangeOrWorldStart;
 
+    //The capabilities of tilesAround that energy and fluids get shared to, only resolved again when the tile on a side changes
+    private final TileEntity[] energyTilesAround = new TileEntity[6];
+    private final IEnergyStorage[] energyStoragesAround = new IEnergyStorage[6];
+    private final TileEntity[] fluidTilesAround = new TileEntity[6];
+    private final IFluidHandler[] fluidHandlersAround = new IFluidHandler[6];
+
+    //On the server, this is the sync data that the players in syncedPlayers have been sent last, up to the interest they had then,
+    //on the client, it's the sync data that has been received last and that changes get applied to
+    private NBTTagCompound lastSyncCompound;
+    private Map<EntityPlayerMP, SyncInterest> syncedPlayers = Collections.emptyMap();
+
     public TileEntityBase(String name){
         this.name = name;
     }
@@ -137,6 +165,9 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public final SPacketUpdateTileEntity getUpdatePacket(){
+        //Whoever receives this wasn't around for the last update, so the next one needs to contain everything
+        this.syncedPlayers = Collections.emptyMap();
+
         NBTTagCompound compound = new NBTTagCompound();
         this.writeSyncableNBT(compound, NBTType.SYNC);
         return new SPacketUpdateTileEntity(this.pos, -1, compound);
@@ -144,11 +175,13 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public final void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt){
-        this.readSyncableNBT(pkt.getNbtCompound(), NBTType.SYNC);
+        this.receiveSyncData(pkt.getNbtCompound(), false, SyncInterest.GUI);
     }
 
     @Override
     public final NBTTagCompound getUpdateTag(){
+        this.syncedPlayers = Collections.emptyMap();
+
         NBTTagCompound compound = new NBTTagCompound();
         this.writeSyncableNBT(compound, NBTType.SYNC);
         return compound;
@@ -156,21 +189,208 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public final void handleUpdateTag(NBTTagCompound compound){
-        this.readSyncableNBT(compound, NBTType.SYNC);
+        this.receiveSyncData(compound, false, SyncInterest.GUI);
     }
 
+    /**
+     * Sends the sync data to the players that have the chunk loaded, leaving out what they aren't interested in.
+     * Players that got the last update with the same or a higher interest are only sent
+     * the top level tags that changed since then, and nothing if nothing changed.
+     */
     public final void sendUpdate(){
-        if(this.world != null && !this.world.isRemote){
+        if(this.world instanceof WorldServer){
             NBTTagCompound compound = new NBTTagCompound();
             this.writeSyncableNBT(compound, NBTType.SYNC);
 
-            NBTTagCompound data = new NBTTagCompound();
-            data.setTag("Data", compound);
-            data.setInteger("X", this.pos.getX());
-            data.setInteger("Y", this.pos.getY());
-            data.setInteger("Z", this.pos.getZ());
-            PacketHandler.theNetwork.sendToAllAround(new PacketServerToClient(data, PacketHandler.TILE_ENTITY_HANDLER), new NetworkRegistry.TargetPoint(this.world.provider.getDimension(), this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), 64));
+            Map<EntityPlayerMP, SyncInterest> players = new HashMap<>();
+            PlayerChunkMapEntry entry = ((WorldServer)this.world).getPlayerChunkMap().getEntry(this.pos.getX() >> 4, this.pos.getZ() >> 4);
+            if(entry != null){
+                SyncInterest[] interests = SyncInterest.values();
+                PacketTileSync[] fullPackets = new PacketTileSync[interests.length];
+                PacketTileSync[] changesPackets = new PacketTileSync[interests.length];
+                NBTTagCompound changes = null;
+                boolean hasCheckedChanges = false;
+
+                for(EntityPlayerMP player : entry.getWatchingPlayers()){
+                    SyncInterest interest = SyncInterestTracker.getInterest(player, this);
+                    players.put(player, interest);
+
+                    int index = interest.ordinal();
+                    SyncInterest lastInterest = this.syncedPlayers.get(player);
+                    if(this.lastSyncCompound != null && lastInterest != null && lastInterest.includes(interest)){
+                        if(!hasCheckedChanges){
+                            hasCheckedChanges = true;
+                            changes = getSyncChanges(this.lastSyncCompound, compound);
+                        }
+                        if(changes != null){
+                            if(changesPackets[index] == null){
+                                NBTTagCompound filtered = this.filterSyncData(changes, interest);
+                                if(!filtered.hasNoTags()){
+                                    changesPackets[index] = new PacketTileSync(this.pos, true, interest, filtered);
+                                }
+                            }
+                            if(changesPackets[index] != null){
+                                PacketHandler.theNetwork.sendTo(changesPackets[index], player);
+                                TickProfiler.recordSyncPacket(this, changesPackets[index]);
+                            }
+                        }
+                    }
+                    else{
+                        if(fullPackets[index] == null){
+                            fullPackets[index] = new PacketTileSync(this.pos, false, interest, this.filterSyncData(compound, interest));
+                        }
+                        PacketHandler.theNetwork.sendTo(fullPackets[index], player);
+                        TickProfiler.recordSyncPacket(this, fullPackets[index]);
+                    }
+                }
+            }
+
+            this.lastSyncCompound = compound;
+            this.syncedPlayers = players;
+        }
+    }
+
+    /**
+     * Returns which players need to be sent the top level sync tag with the given name.
+     * Everything that is only shown in a GUI or HUD should say so here to save bandwidth.
+     */
+    public SyncInterest getSyncInterest(String key){
+        return SyncInterest.WORLD;
+    }
+
+    private NBTTagCompound filterSyncData(NBTTagCompound compound, SyncInterest interest){
+        if(interest == SyncInterest.GUI){
+            return compound;
+        }
+
+        NBTTagCompound filtered = new NBTTagCompound();
+        for(String key : compound.getKeySet()){
+            if("Removed".equals(key)){
+                NBTTagList removed = compound.getTagList(key, 8);
+                NBTTagList filteredRemoved = new NBTTagList();
+                for(int i = 0; i < removed.tagCount(); i++){
+                    if(interest.includes(this.getSyncInterest(removed.getStringTagAt(i)))){
+                        filteredRemoved.appendTag(removed.get(i));
+                    }
+                }
+                if(!filteredRemoved.hasNoTags()){
+                    filtered.setTag(key, filteredRemoved);
+                }
+            }
+            else if(interest.includes(this.getSyncInterest(key))){
+                filtered.setTag(key, compound.getTag(key));
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Makes the tile send its sync data at the end of the current tick,
+     * no matter how often this is called until then
+     */
+    public final void queueUpdate(){
+        if(this.world != null && !this.world.isRemote){
+            queuedUpdateRequests++;
+            QUEUED_UPDATES.add(this);
+        }
+    }
+
+    public static void sendQueuedUpdates(){
+        if(!QUEUED_UPDATES.isEmpty()){
+            //Copied so that tiles queueing again while syncing are sent in the next tick
+            TileEntityBase[] tiles = QUEUED_UPDATES.toArray(new TileEntityBase[QUEUED_UPDATES.size()]);
+            QUEUED_UPDATES.clear();
+
+            for(TileEntityBase tile : tiles){
+                if(!tile.isInvalid() && tile.world.isBlockLoaded(tile.pos)){
+                    tile.sendUpdate();
+                    sentQueuedUpdates++;
+                }
+            }
+        }
+    }
+
+    public static void clearQueuedUpdates(){
+        QUEUED_UPDATES.clear();
+    }
+
+    public static long getQueuedUpdateRequests(){
+        return queuedUpdateRequests;
+    }
+
+    public static long getSentQueuedUpdates(){
+        return sentQueuedUpdates;
+    }
+
+    public static void logUpdateStatistics(){
+        if(queuedUpdateRequests > 0){
+            ActuallyAdditions.LOGGER.debug("Queued tile entity updates: "+queuedUpdateRequests+" requested, "+sentQueuedUpdates+" sent.");
+        }
+    }
+
+    /**
+     * Returns the top level tags of the new compound that are different from the old one,
+     * with the names of removed tags in a list called "Removed", or null if nothing changed
+     */
+    private static NBTTagCompound getSyncChanges(NBTTagCompound oldCompound, NBTTagCompound newCompound){
+        NBTTagCompound changes = new NBTTagCompound();
+        boolean changed = false;
+
+        for(String key : newCompound.getKeySet()){
+            NBTBase tag = newCompound.getTag(key);
+            if(!tag.equals(oldCompound.getTag(key))){
+                changes.setTag(key, tag);
+                changed = true;
+            }
+        }
+
+        NBTTagList removed = new NBTTagList();
+        for(String key : oldCompound.getKeySet()){
+            if(!newCompound.hasKey(key)){
+                removed.appendTag(new NBTTagString(key));
+            }
         }
+        if(!removed.hasNoTags()){
+            changes.setTag("Removed", removed);
+            changed = true;
+        }
+
+        return changed ? changes : null;
+    }
+
+    /**
+     * Called on the client with either everything that the player is interested in or only what changed since the last time
+     */
+    public final void receiveSyncData(NBTTagCompound compound, boolean onlyChanges, SyncInterest interest){
+        if(onlyChanges){
+            //Without the data the changes are based on, applying them would reset everything else
+            if(this.lastSyncCompound == null){
+                return;
+            }
+
+            NBTTagList removed = compound.getTagList("Removed", 8);
+            for(int i = 0; i < removed.tagCount(); i++){
+                this.lastSyncCompound.removeTag(removed.getStringTagAt(i));
+            }
+            for(String key : compound.getKeySet()){
+                if(!"Removed".equals(key)){
+                    this.lastSyncCompound.setTag(key, compound.getTag(key));
+                }
+            }
+        }
+        else{
+            //Tags that were left out because of the interest keep their last known value
+            if(this.lastSyncCompound != null && interest != SyncInterest.GUI){
+                for(String key : this.lastSyncCompound.getKeySet()){
+                    if(!compound.hasKey(key) && !interest.includes(this.getSyncInterest(key))){
+                        compound.setTag(key, this.lastSyncCompound.getTag(key));
+                    }
+                }
+            }
+            this.lastSyncCompound = compound;
+        }
+
+        this.readSyncableNBT(this.lastSyncCompound, NBTType.SYNC);
     }
 
     public void writeSyncableNBT(NBTTagCompound compound, NBTType type){
@@ -219,7 +439,14 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
     @Override
     public final void update(){
-        this.updateEntity();
+        if(TickProfiler.isRunning() && !this.world.isRemote){
+            long startTime = System.nanoTime();
+            this.updateEntity();
+            TickProfiler.recordTick(this, System.nanoTime()-startTime);
+        }
+        else{
+            this.updateEntity();
+        }
     }
 
     public int getComparatorStrength(){
@@ -244,8 +471,11 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
                         for(EnumFacing side : sides){
                             TileEntity tile = this.tilesAround[side.ordinal()];
-                            if(tile != null && provider.canShareTo(tile)){
-                                WorldUtil.doEnergyInteraction(this, tile, side, amount);
+                            if(tile != null && !tile.isInvalid() && provider.canShareTo(tile)){
+                                IEnergyStorage storage = this.getEnergyStorageAround(side, tile);
+                                if(storage != null){
+                                    WorldUtil.doEnergyInteraction(this.getCapability(CapabilityEnergy.ENERGY, side), storage, amount);
+                                }
                             }
                         }
                     }
@@ -266,8 +496,11 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
 
                         for(EnumFacing side : sides){
                             TileEntity tile = this.tilesAround[side.ordinal()];
-                            if(tile != null){
-                                WorldUtil.doFluidInteraction(this, tile, side, amount);
+                            if(tile != null && !tile.isInvalid()){
+                                IFluidHandler handler = this.getFluidHandlerAround(side, tile);
+                                if(handler != null){
+                                    WorldUtil.doFluidInteraction(this.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, side), handler, amount);
+                                }
                             }
                         }
                     }
@@ -277,6 +510,7 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
             if(!this.hasSavedDataOnChangeOrWorldStart){
                 if(this.shouldSaveDataOnChangeOrWorldStart()){
                     this.saveDataOnChangeOrWorldStart();
+                    this.updateTilesAround();
                 }
 
                 this.hasSavedDataOnChangeOrWorldStart = true;
@@ -285,6 +519,30 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
     }
 
     public void saveDataOnChangeOrWorldStart(){
+        this.updateTilesAround();
+    }
+
+    /**
+     * Called by the block when something next to it changed. The saved data is only updated when the tile
+     * on that side was added, removed or replaced, and not for things like redstone changes.
+     */
+    public final void onNeighborChanged(BlockPos neighbor){
+        for(EnumFacing side : EnumFacing.values()){
+            if(this.pos.offset(side).equals(neighbor)){
+                TileEntity tile = this.world.isBlockLoaded(neighbor) ? this.world.getTileEntity(neighbor) : null;
+                TileEntity lastTile = this.tilesAround[side.ordinal()];
+                //Phantomfaces and the like can change what they expose while staying the same tile
+                if(tile != lastTile || (lastTile != null && lastTile.isInvalid()) || (tile != null && !hasStableCapabilities(tile))){
+                    this.saveDataOnChangeOrWorldStart();
+                    this.tilesAround[side.ordinal()] = tile;
+                }
+                return;
+            }
+        }
+    }
+
+    //Tiles overriding saveDataOnChangeOrWorldStart don't always call super, but onNeighborChanged needs to know what was around
+    private void updateTilesAround(){
         for(EnumFacing side : EnumFacing.values()){
             BlockPos pos = this.pos.offset(side);
             if(this.world.isBlockLoaded(pos)){
@@ -293,6 +551,38 @@ public abstract class TileEntityBase extends TileEntity implements ITickable{
         }
     }
 
+    private IEnergyStorage getEnergyStorageAround(EnumFacing side, TileEntity tile){
+        int index = side.ordinal();
+        if(this.energyTilesAround[index] != tile || !hasStableCapabilities(tile)){
+            EnumFacing opposite = side.getOpposite();
+            this.energyStoragesAround[index] = tile.hasCapability(CapabilityEnergy.ENERGY, opposite) ? tile.getCapability(CapabilityEnergy.ENERGY, opposite) : null;
+            this.energyTilesAround[index] = tile;
+        }
+        return this.energyStoragesAround[index];
+    }
+
+    private IFluidHandler getFluidHandlerAround(EnumFacing side, TileEntity tile){
+        int index = side.ordinal();
+        if(this.fluidTilesAround[index] != tile || !hasStableCapabilities(tile)){
+            EnumFacing opposite = side.getOpposite();
+            this.fluidHandlersAround[index] = tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opposite) ? tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opposite) : null;
+            this.fluidTilesAround[index] = tile;
+        }
+        return this.fluidHandlersAround[index];
+    }
+
+    private static boolean hasStableCapabilities(TileEntity tile){
+        return !(tile instanceof TileEntityBase) || ((TileEntityBase)tile).hasStableCapabilities();
+    }
+
+    /**
+     * If the capabilities this tile returns stay the same until it is replaced, so that tiles around it can hold on to them.
+     * Tiles that hand out different handlers over time need to return false.
+     */
+    public boolean hasStableCapabilities(){
+        return true;
+    }
+
     public boolean shouldSaveDataOnChangeOrWorldStart(){
         return this instanceof ISharingEnergyProvider || this instanceof ISharingFluidHandler;
     }
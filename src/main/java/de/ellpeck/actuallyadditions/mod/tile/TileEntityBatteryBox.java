@@ -42,6 +42,12 @@ public class TileEntityBatteryBox extends TileEntityInventoryBase implements ISh
         return null;
     }
 
+    //The storage belongs to whatever battery is inside
+    @Override
+    public boolean hasStableCapabilities(){
+        return false;
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
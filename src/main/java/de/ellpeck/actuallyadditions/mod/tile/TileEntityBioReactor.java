@@ -58,6 +58,19 @@ public class TileEntityBioReactor extends TileEntityInventoryBase implements ISh
         return o instanceof IPlantable || o instanceof IGrowable || o instanceof ItemFood;
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "BurnTime":
+            case "MaxBurnTime":
+            case "ProducePerTick":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -80,6 +80,21 @@ public class TileEntityCanolaPress extends TileEntityInventoryBase implements IS
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "ProcessTime":
+            case "FluidName":
+            case "Amount":
+            case "Tag":
+            case "Empty":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -64,6 +64,11 @@ public class TileEntityCoalGenerator extends TileEntityInventoryBase implements
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        return "Energy".equals(key) ? SyncInterest.GUI : super.getSyncInterest(key);
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -105,6 +105,22 @@ public class TileEntityCoffeeMachine extends TileEntityInventoryBase implements
         }
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "Cache":
+            case "Time":
+            case "FluidName":
+            case "Amount":
+            case "Tag":
+            case "Empty":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
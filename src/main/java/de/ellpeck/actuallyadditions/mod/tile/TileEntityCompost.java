@@ -12,6 +12,7 @@ package de.ellpeck.actuallyadditions.mod.tile;
 
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.CompostRecipe;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.util.ItemUtil;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import net.minecraft.block.state.IBlockState;
@@ -31,12 +32,7 @@ public class TileEntityCompost extends TileEntityInventoryBase {
     }
 
     public static CompostRecipe getRecipeForInput(ItemStack input) {
-        if (StackUtil.isValid(input)) {
-            for (CompostRecipe recipe : ActuallyAdditionsAPI.COMPOST_RECIPES) {
-                if (recipe.matches(input)) return recipe;
-            }
-        }
-        return null;
+        return RecipeIndexes.COMPOST.find(input, CompostRecipe::matches);
     }
 
     @Override
@@ -17,6 +17,7 @@ import javax.annotation.Nullable;
 
 import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.EmpowererRecipe;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
@@ -28,10 +29,22 @@ import net.minecraft.world.WorldServer;
 
 public class TileEntityEmpowerer extends TileEntityInventoryBase {
 
+    private static final int STAND_SEARCH_INTERVAL = 20;
+
     public int processTime;
     public int recipeForRenderIndex = -1;
     private int lastRecipe;
 
+    private TileEntityDisplayStand[] stands;
+    private boolean searchStands = true;
+
+    //The recipe is only searched again when one of the five stacks involved changes
+    private final ItemStack[] lastInputs = new ItemStack[5];
+    private final int[] lastInputCounts = new int[5];
+    private int lastRecipeModCount = -1;
+    private EmpowererRecipe currentRecipe;
+    private int currentRecipeIndex = -1;
+
     public TileEntityEmpowerer() {
         super(1, "empowerer");
     }
@@ -40,7 +53,7 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase {
     public static List<EmpowererRecipe> getRecipesForInput(ItemStack input) {
         List<EmpowererRecipe> recipesThatWork = new ArrayList<EmpowererRecipe>();
         if (StackUtil.isValid(input)) {
-            for (EmpowererRecipe recipe : ActuallyAdditionsAPI.EMPOWERER_RECIPES) {
+            for (EmpowererRecipe recipe : RecipeIndexes.EMPOWERER.getCandidates(input)) {
                 if (recipe.getInput().apply(input)) {
                     recipesThatWork.add(recipe);
                 }
@@ -50,16 +63,13 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase {
     }
     
     public static boolean isPossibleInput(ItemStack stack) {
-        for(EmpowererRecipe r : ActuallyAdditionsAPI.EMPOWERER_RECIPES) if(r.getInput().apply(stack)) return true;
+        for(EmpowererRecipe r : RecipeIndexes.EMPOWERER.getCandidates(stack)) if(r.getInput().apply(stack)) return true;
         return false;
     }
 
     @Nullable
     public static EmpowererRecipe findMatchingRecipe(ItemStack base, ItemStack stand1, ItemStack stand2, ItemStack stand3, ItemStack stand4) {
-        for (EmpowererRecipe r : ActuallyAdditionsAPI.EMPOWERER_RECIPES) {
-            if (r.matches(base, stand1, stand2, stand3, stand4)) return r;
-        }
-        return null;
+        return RecipeIndexes.EMPOWERER.find(base, (r, stack) -> r.matches(stack, stand1, stand2, stand3, stand4));
     }
 
     @Override
@@ -69,9 +79,9 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase {
         if (!this.world.isRemote) {
             TileEntityDisplayStand[] stands = this.getNearbyStands();
             if (stands != null) {
-                EmpowererRecipe recipe = findMatchingRecipe(this.inv.getStackInSlot(0), stands[0].getStack(), stands[1].getStack(), stands[2].getStack(), stands[3].getStack());
+                EmpowererRecipe recipe = this.getCurrentRecipe(stands);
                 if (recipe != null) {
-                    this.recipeForRenderIndex = ActuallyAdditionsAPI.EMPOWERER_RECIPES.indexOf(recipe);
+                    this.recipeForRenderIndex = this.currentRecipeIndex;
 
                     this.processTime++;
                     boolean done = this.processTime >= recipe.getTime();
@@ -111,18 +121,52 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase {
         }
     }
 
+    private EmpowererRecipe getCurrentRecipe(TileEntityDisplayStand[] stands) {
+        boolean changed = this.lastRecipeModCount != RecipeIndexes.EMPOWERER.getModCount();
+        for (int i = 0; i < this.lastInputs.length; i++) {
+            ItemStack stack = i == 0 ? this.inv.getStackInSlot(0) : stands[i - 1].getStack();
+            if (stack != this.lastInputs[i] || stack.getCount() != this.lastInputCounts[i]) {
+                this.lastInputs[i] = stack;
+                this.lastInputCounts[i] = stack.getCount();
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            this.lastRecipeModCount = RecipeIndexes.EMPOWERER.getModCount();
+            this.currentRecipe = findMatchingRecipe(this.lastInputs[0], this.lastInputs[1], this.lastInputs[2], this.lastInputs[3], this.lastInputs[4]);
+            this.currentRecipeIndex = this.currentRecipe != null ? ActuallyAdditionsAPI.EMPOWERER_RECIPES.indexOf(this.currentRecipe) : -1;
+        }
+        return this.currentRecipe;
+    }
+
     private TileEntityDisplayStand[] getNearbyStands() {
-        TileEntityDisplayStand[] stands = new TileEntityDisplayStand[4];
-
-        for (int i = 0; i < EnumFacing.HORIZONTALS.length; i++) {
-            EnumFacing facing = EnumFacing.HORIZONTALS[i];
-            BlockPos offset = this.pos.offset(facing, 3);
-            TileEntity tile = this.world.getTileEntity(offset);
-            if (tile instanceof TileEntityDisplayStand) stands[i] = (TileEntityDisplayStand) tile;
-            else return null;
+        if (this.stands != null) {
+            for (TileEntityDisplayStand stand : this.stands) {
+                if (stand.isInvalid() || !this.world.isBlockLoaded(stand.getPos(), false)) {
+                    this.stands = null;
+                    this.searchStands = true;
+                    break;
+                }
+            }
+        }
+
+        //Stands aren't direct neighbors, so missing ones are only looked for every now and then
+        if (this.stands == null && (this.searchStands || this.ticksElapsed % STAND_SEARCH_INTERVAL == 0)) {
+            this.searchStands = false;
+
+            TileEntityDisplayStand[] stands = new TileEntityDisplayStand[4];
+            for (int i = 0; i < EnumFacing.HORIZONTALS.length; i++) {
+                EnumFacing facing = EnumFacing.HORIZONTALS[i];
+                BlockPos offset = this.pos.offset(facing, 3);
+                TileEntity tile = this.world.getTileEntity(offset);
+                if (tile instanceof TileEntityDisplayStand) stands[i] = (TileEntityDisplayStand) tile;
+                else return null;
+            }
+            this.stands = stands;
         }
 
-        return stands;
+        return this.stands;
     }
 
     @Override
@@ -154,12 +198,12 @@ public class TileEntityEmpowerer extends TileEntityInventoryBase {
 
     @Override
     public boolean canInsert(int index, ItemStack stack, boolean automation) {
-        return !automation || !getRecipesForInput(stack).isEmpty();
+        return !automation || isPossibleInput(stack);
     }
 
     @Override
     public boolean canExtract(int index, ItemStack stack, boolean automation) {
-        return !automation || getRecipesForInput(stack).isEmpty();
+        return !automation || !isPossibleInput(stack);
     }
 
     @Override
@@ -39,6 +39,11 @@ public class TileEntityEnergizer extends TileEntityInventoryBase{
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        return "Energy".equals(key) ? SyncInterest.GUI : super.getSyncInterest(key);
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -78,6 +78,21 @@ public class TileEntityFermentingBarrel extends TileEntityBase implements IShari
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "ProcessTime":
+            case "OilTank":
+            case "FluidName":
+            case "Amount":
+            case "Tag":
+            case "Empty":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -97,6 +97,19 @@ public class TileEntityFurnaceDouble extends TileEntityInventoryBase implements
         this.storage.readFromNBT(compound);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "FirstSmeltTime":
+            case "SecondSmeltTime":
+            case "IsAutoSplit":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -39,6 +39,11 @@ public class TileEntityFurnaceSolar extends TileEntityBase implements ISharingEn
         this.storage.readFromNBT(compound);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        return "Energy".equals(key) ? SyncInterest.HUD : super.getSyncInterest(key);
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
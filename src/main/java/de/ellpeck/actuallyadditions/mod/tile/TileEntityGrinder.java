@@ -77,6 +77,19 @@ public class TileEntityGrinder extends TileEntityInventoryBase implements IButto
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "FirstCrushTime":
+            case "SecondCrushTime":
+            case "IsAutoSplit":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -55,6 +55,11 @@ public class TileEntityHeatCollector extends TileEntityBase implements ISharingE
         }
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        return "Energy".equals(key) ? SyncInterest.HUD : super.getSyncInterest(key);
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
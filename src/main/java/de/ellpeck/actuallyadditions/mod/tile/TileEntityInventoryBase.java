@@ -88,7 +88,7 @@ public abstract class TileEntityInventoryBase extends TileEntityBase {
         super.markDirty();
 
         if (this.shouldSyncSlots()) {
-            this.sendUpdate();
+            this.queueUpdate();
         }
     }
 
@@ -12,16 +12,18 @@ package de.ellpeck.actuallyadditions.mod.tile;
 
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
-import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
-import de.ellpeck.actuallyadditions.mod.network.PacketServerToClient;
+import de.ellpeck.actuallyadditions.mod.network.LaserParticleBatcher;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import de.ellpeck.actuallyadditions.mod.util.compat.CommonCapsUtil;
 import de.ellpeck.actuallyadditions.mod.util.compat.SlotlessableItemHandlerWrapper;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -35,11 +37,22 @@ import java.util.*;
 public class TileEntityItemViewer extends TileEntityBase{
 
     public final List<GenericItemHandlerInfo> genericInfos = new ArrayList<GenericItemHandlerInfo>();
-    public final Map<Integer, IItemHandlerInfo> itemHandlerInfos = new HashMap<Integer, IItemHandlerInfo>();
     public final List<SlotlessItemHandlerInfo> slotlessInfos = new ArrayList<SlotlessItemHandlerInfo>();
     protected final SlotlessableItemHandlerWrapper itemHandler;
     public TileEntityLaserRelayItem connectedRelay;
     private int lastNetworkChangeAmount = -1;
+    private IItemHandlerInfo[] itemHandlerInfos = new IItemHandlerInfo[0];
+    private int[] firstSlots = new int[0];
+    private int totalSlots;
+
+    //How long the item to slot index is trusted before it gets rebuilt, as the inventories can change without the interface knowing
+    private static final int SLOT_INDEX_TICKS = 20;
+    //The special meta that makes an index key match every meta of the item
+    public static final int ANY_META = -1;
+    private static final long NOT_INDEXED = -1L;
+    private final Long2ObjectMap<IntSortedSet> slotsByKey = new Long2ObjectOpenHashMap<IntSortedSet>();
+    private long[] indexedKeys;
+    private long slotIndexTime;
 
     public TileEntityItemViewer(String name){
         super(name);
@@ -47,28 +60,15 @@ public class TileEntityItemViewer extends TileEntityBase{
         IItemHandler normalHandler = new IItemHandler(){
             @Override
             public int getSlots(){
-                int size = 0;
-                List<GenericItemHandlerInfo> infos = TileEntityItemViewer.this.getItemHandlerInfos();
-                if(infos != null){
-                    for(GenericItemHandlerInfo info : infos){
-                        if(info.isLoaded()){
-                            for(SlotlessableItemHandlerWrapper handler : info.handlers){
-                                IItemHandler normalHandler = handler.getNormalHandler();
-                                if(normalHandler != null){
-                                    size += normalHandler.getSlots();
-                                }
-                            }
-                        }
-                    }
-                }
-                return size;
+                TileEntityItemViewer.this.queryAndSaveData();
+                return TileEntityItemViewer.this.totalSlots;
             }
 
             @Override
             public ItemStack getStackInSlot(int slot){
                 IItemHandlerInfo handler = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(handler != null && handler.isLoaded()){
-                    return handler.handler.getStackInSlot(handler.switchedIndex);
+                    return handler.handler.getStackInSlot(slot-handler.firstSlot);
                 }
                 return StackUtil.getEmpty();
             }
@@ -77,9 +77,10 @@ public class TileEntityItemViewer extends TileEntityBase{
             public ItemStack insertItem(int slot, ItemStack stack, boolean simulate){
                 IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(info != null && info.isLoaded() && TileEntityItemViewer.this.isWhitelisted(info, stack, false)){
-                    ItemStack remain = info.handler.insertItem(info.switchedIndex, stack, simulate);
+                    ItemStack remain = info.handler.insertItem(slot-info.firstSlot, stack, simulate);
                     if(!ItemStack.areItemStacksEqual(remain, stack) && !simulate){
                         TileEntityItemViewer.this.markDirty();
+                        TileEntityItemViewer.this.updateSlotIndex(info, slot);
                         TileEntityItemViewer.this.doItemParticle(stack, info.relayInQuestion.getPos(), TileEntityItemViewer.this.connectedRelay.getPos());
                     }
                     return remain;
@@ -89,13 +90,15 @@ public class TileEntityItemViewer extends TileEntityBase{
 
             @Override
             public ItemStack extractItem(int slot, int amount, boolean simulate){
-                ItemStack stackIn = this.getStackInSlot(slot);
-                if(StackUtil.isValid(stackIn)){
-                    IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
-                    if(info != null && info.isLoaded() && TileEntityItemViewer.this.isWhitelisted(info, stackIn, true)){
-                        ItemStack extracted = info.handler.extractItem(info.switchedIndex, amount, simulate);
+                IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
+                if(info != null && info.isLoaded()){
+                    int switchedIndex = slot-info.firstSlot;
+                    ItemStack stackIn = info.handler.getStackInSlot(switchedIndex);
+                    if(StackUtil.isValid(stackIn) && TileEntityItemViewer.this.isWhitelisted(info, stackIn, true)){
+                        ItemStack extracted = info.handler.extractItem(switchedIndex, amount, simulate);
                         if(StackUtil.isValid(extracted) && !simulate){
                             TileEntityItemViewer.this.markDirty();
+                            TileEntityItemViewer.this.updateSlotIndex(info, slot);
                             TileEntityItemViewer.this.doItemParticle(extracted, TileEntityItemViewer.this.connectedRelay.getPos(), info.relayInQuestion.getPos());
                         }
                         return extracted;
@@ -108,7 +111,7 @@ public class TileEntityItemViewer extends TileEntityBase{
             public int getSlotLimit(int slot){
                 IItemHandlerInfo info = TileEntityItemViewer.this.getSwitchedIndexHandler(slot);
                 if(info != null && info.isLoaded()){
-                    return info.handler.getSlotLimit(info.switchedIndex);
+                    return info.handler.getSlotLimit(slot-info.firstSlot);
                 }
                 else{
                     return 0;
@@ -147,32 +150,9 @@ public class TileEntityItemViewer extends TileEntityBase{
         return super.getCapability(capability, facing);
     }
 
-    private List<GenericItemHandlerInfo> getItemHandlerInfos(){
-        this.queryAndSaveData();
-        return this.genericInfos;
-    }
-
     public void doItemParticle(ItemStack stack, BlockPos input, BlockPos output){
         if(!this.world.isRemote){
-            NBTTagCompound compound = new NBTTagCompound();
-            stack.writeToNBT(compound);
-
-            compound.setDouble("InX", input.getX());
-            compound.setDouble("InY", input.getY());
-            compound.setDouble("InZ", input.getZ());
-
-            compound.setDouble("OutX", output.getX());
-            compound.setDouble("OutY", output.getY());
-            compound.setDouble("OutZ", output.getZ());
-
-            int rangeSq = 16*16;
-            for(EntityPlayer player : this.world.playerEntities){
-                if(player instanceof EntityPlayerMP){
-                    if(player.getDistanceSq(input) <= rangeSq || player.getDistanceSq(output) <= rangeSq){
-                        PacketHandler.theNetwork.sendTo(new PacketServerToClient(compound, PacketHandler.LASER_PARTICLE_HANDLER), (EntityPlayerMP)player);
-                    }
-                }
-            }
+            LaserParticleBatcher.queue(this.world, stack, input, output);
         }
     }
 
@@ -187,14 +167,16 @@ public class TileEntityItemViewer extends TileEntityBase{
                     if(!this.genericInfos.isEmpty()){
                         Collections.sort(this.genericInfos);
 
+                        List<IItemHandlerInfo> handlerInfos = new ArrayList<IItemHandlerInfo>();
                         int slotsQueried = 0;
                         for(GenericItemHandlerInfo info : this.genericInfos){
                             for(SlotlessableItemHandlerWrapper handler : info.handlers){
                                 IItemHandler normalHandler = handler.getNormalHandler();
                                 if(normalHandler != null){
-                                    for(int i = 0; i < normalHandler.getSlots(); i++){
-                                        this.itemHandlerInfos.put(slotsQueried, new IItemHandlerInfo(normalHandler, i, info.relayInQuestion));
-                                        slotsQueried++;
+                                    int slots = normalHandler.getSlots();
+                                    if(slots > 0){
+                                        handlerInfos.add(new IItemHandlerInfo(normalHandler, slotsQueried, info.relayInQuestion));
+                                        slotsQueried += slots;
                                     }
                                 }
 
@@ -206,6 +188,13 @@ public class TileEntityItemViewer extends TileEntityBase{
                                 }
                             }
                         }
+
+                        this.itemHandlerInfos = handlerInfos.toArray(new IItemHandlerInfo[handlerInfos.size()]);
+                        this.firstSlots = new int[this.itemHandlerInfos.length];
+                        for(int i = 0; i < this.itemHandlerInfos.length; i++){
+                            this.firstSlots[i] = this.itemHandlerInfos[i].firstSlot;
+                        }
+                        this.totalSlots = slotsQueried;
                     }
                     this.lastNetworkChangeAmount = network.changeAmount;
                 }
@@ -223,18 +212,160 @@ public class TileEntityItemViewer extends TileEntityBase{
             this.genericInfos.clear();
         }
 
-        if(!this.itemHandlerInfos.isEmpty()){
-            this.itemHandlerInfos.clear();
+        if(this.itemHandlerInfos.length > 0){
+            this.itemHandlerInfos = new IItemHandlerInfo[0];
+            this.firstSlots = new int[0];
         }
+        this.totalSlots = 0;
 
         if(!this.slotlessInfos.isEmpty()){
             this.slotlessInfos.clear();
         }
+
+        this.clearSlotIndex();
+    }
+
+    private void clearSlotIndex(){
+        if(!this.slotsByKey.isEmpty()){
+            this.slotsByKey.clear();
+        }
+        this.indexedKeys = null;
+    }
+
+    /**
+     * Gets the key that the slot index uses for the given item and meta.
+     * Slots are indexed both under their exact item and meta and under the item with ANY_META.
+     * Empty slots can be found with Items.AIR and a meta of 0.
+     */
+    public static long getIndexKey(Item item, int meta){
+        return ((long)Item.getIdFromItem(item) << 32) | (meta & 0xFFFFFFFFL);
+    }
+
+    private static long getIndexKey(ItemStack stack){
+        return StackUtil.isValid(stack) ? getIndexKey(stack.getItem(), stack.getMetadata()) : getIndexKey(Items.AIR, 0);
+    }
+
+    private static long getAnyMetaKey(long key){
+        return key | 0xFFFFFFFFL;
+    }
+
+    private static boolean isEmptyKey(long key){
+        return key == getIndexKey(Items.AIR, 0);
+    }
+
+    /**
+     * Gets the first slot after the given one that the given index key matches,
+     * using an index of all slots that is rebuilt every now and then and kept up to date for changes going through this interface.
+     * Returns -1 if there is none.
+     */
+    public int getNextIndexedSlot(long key, int after){
+        this.queryAndSaveData();
+
+        long time = this.world.getTotalWorldTime();
+        if(this.indexedKeys == null || this.indexedKeys.length != this.totalSlots || time-this.slotIndexTime >= SLOT_INDEX_TICKS){
+            this.buildSlotIndex();
+            this.slotIndexTime = time;
+        }
+
+        IntSortedSet slots = this.slotsByKey.get(key);
+        if(slots != null){
+            int slot = after;
+            while(true){
+                IntSortedSet following = slots.tailSet(slot+1);
+                if(following.isEmpty()){
+                    break;
+                }
+                slot = following.firstInt();
+
+                //Slots that changed without the interface knowing get moved to the right place in the index on the way
+                IItemHandlerInfo info = this.getSwitchedIndexHandler(slot);
+                if(info != null && info.isLoaded()){
+                    long slotKey = this.updateSlotIndex(info, slot);
+                    if(slotKey == key || (!isEmptyKey(slotKey) && getAnyMetaKey(slotKey) == key)){
+                        return slot;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    //The sets of the buckets are kept so that rebuilding doesn't need to allocate them again
+    private void buildSlotIndex(){
+        for(IntSortedSet slots : this.slotsByKey.values()){
+            slots.clear();
+        }
+        if(this.indexedKeys == null || this.indexedKeys.length != this.totalSlots){
+            this.indexedKeys = new long[this.totalSlots];
+        }
+        Arrays.fill(this.indexedKeys, NOT_INDEXED);
+
+        for(int h = 0; h < this.itemHandlerInfos.length; h++){
+            IItemHandlerInfo info = this.itemHandlerInfos[h];
+            if(info.isLoaded()){
+                int end = h+1 < this.firstSlots.length ? this.firstSlots[h+1] : this.totalSlots;
+                int slots = Math.min(info.handler.getSlots(), end-info.firstSlot);
+                for(int i = 0; i < slots; i++){
+                    int slot = info.firstSlot+i;
+                    long key = getIndexKey(info.handler.getStackInSlot(i));
+                    this.indexedKeys[slot] = key;
+                    this.addToIndex(key, slot);
+                }
+            }
+        }
     }
 
+    private long updateSlotIndex(IItemHandlerInfo info, int slot){
+        long key = getIndexKey(info.handler.getStackInSlot(slot-info.firstSlot));
+        if(this.indexedKeys != null && slot < this.indexedKeys.length){
+            long old = this.indexedKeys[slot];
+            if(old != key){
+                if(old != NOT_INDEXED){
+                    this.removeFromIndex(old, slot);
+                }
+                this.addToIndex(key, slot);
+                this.indexedKeys[slot] = key;
+            }
+        }
+        return key;
+    }
+
+    private void addToIndex(long key, int slot){
+        this.getIndexedSlots(key).add(slot);
+        if(!isEmptyKey(key)){
+            this.getIndexedSlots(getAnyMetaKey(key)).add(slot);
+        }
+    }
+
+    private void removeFromIndex(long key, int slot){
+        this.getIndexedSlots(key).remove(slot);
+        if(!isEmptyKey(key)){
+            this.getIndexedSlots(getAnyMetaKey(key)).remove(slot);
+        }
+    }
+
+    private IntSortedSet getIndexedSlots(long key){
+        IntSortedSet slots = this.slotsByKey.get(key);
+        if(slots == null){
+            slots = new IntRBTreeSet();
+            this.slotsByKey.put(key, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Finds the handler that the given slot belongs to by searching the first slots of all handlers
+     */
     private IItemHandlerInfo getSwitchedIndexHandler(int i){
         this.queryAndSaveData();
-        return this.itemHandlerInfos.get(i);
+        if(i >= 0 && i < this.totalSlots){
+            int index = Arrays.binarySearch(this.firstSlots, i);
+            if(index < 0){
+                index = -index-2;
+            }
+            return this.itemHandlerInfos[index];
+        }
+        return null;
     }
 
     @Override
@@ -292,12 +423,12 @@ public class TileEntityItemViewer extends TileEntityBase{
     private static class IItemHandlerInfo extends SpecificItemHandlerInfo{
 
         public final IItemHandler handler;
-        public final int switchedIndex;
+        public final int firstSlot;
 
-        public IItemHandlerInfo(IItemHandler handler, int switchedIndex, TileEntityLaserRelayItem relayInQuestion){
+        public IItemHandlerInfo(IItemHandler handler, int firstSlot, TileEntityLaserRelayItem relayInQuestion){
             super(relayInQuestion);
             this.handler = handler;
-            this.switchedIndex = switchedIndex;
+            this.firstSlot = firstSlot;
         }
     }
 
@@ -16,6 +16,7 @@ import de.ellpeck.actuallyadditions.api.laser.LaserType;
 import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.items.InitItems;
 import de.ellpeck.actuallyadditions.mod.misc.apiimpl.ConnectionPair;
+import de.ellpeck.actuallyadditions.mod.misc.apiimpl.LaserRelayConnectionHandler;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
 import io.netty.util.internal.ConcurrentSet;
 import net.minecraft.entity.player.EntityPlayer;
@@ -38,6 +39,7 @@ public abstract class TileEntityLaserRelay extends TileEntityInventoryBase{
     private Network cachedNetwork;
     private int changeAmountAtCaching = -1;
     private int lastRange;
+    private boolean chunkIndexed;
 
     public TileEntityLaserRelay(String name, LaserType type){
         super(1, name);
@@ -82,10 +84,34 @@ public abstract class TileEntityLaserRelay extends TileEntityInventoryBase{
         }
     }
 
+    @Override
+    public void onChunkUnload(){
+        super.onChunkUnload();
+        this.removeFromChunkIndex();
+    }
+
+    @Override
+    public void invalidate(){
+        super.invalidate();
+        this.removeFromChunkIndex();
+    }
+
+    private void removeFromChunkIndex(){
+        if(this.chunkIndexed){
+            LaserRelayConnectionHandler.onRelayUnloaded(this.world, this.pos);
+            this.chunkIndexed = false;
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
 
+        if(!this.world.isRemote && !this.chunkIndexed && !this.isInvalid()){
+            LaserRelayConnectionHandler.onRelayLoaded(this.world, this.pos);
+            this.chunkIndexed = true;
+        }
+
         int range = this.getMaxRange();
         if(this.lastRange != range){
             ConcurrentSet<IConnectionPair> connections = ActuallyAdditionsAPI.connectionHandler.getConnectionsFor(this.pos, this.world);
@@ -10,7 +10,10 @@
 
 package de.ellpeck.actuallyadditions.mod.tile;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,6 +24,9 @@ import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigBoolValues;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
@@ -29,6 +35,7 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.text.TextFormatting;
+import net.minecraft.world.World;
 import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
 import net.minecraftforge.fml.relauncher.Side;
@@ -37,10 +44,15 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
 
     public static final int CAP = 1000;
+    private static final Map<Network, BufferedEnergy> BUFFERED_ENERGY = new HashMap<Network, BufferedEnergy>();
     public final ConcurrentHashMap<EnumFacing, TileEntity> receiversAround = new ConcurrentHashMap<EnumFacing, TileEntity>();
     private final IEnergyStorage[] energyStorages = new IEnergyStorage[6];
     private Mode mode = Mode.BOTH;
 
+    private Network cachedReceiverNetwork;
+    private int receiverChangeAmount = -1;
+    private EnergyReceiver[] receivers = new EnergyReceiver[0];
+
     public TileEntityLaserRelayEnergy(String name){
         super(name, LaserType.ENERGY);
 
@@ -90,7 +102,12 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         if(maxTransmit > 0 && this.mode != Mode.OUTPUT_ONLY){
             Network network = this.getNetwork();
             if(network != null){
-                transmitted = this.transferEnergyToReceiverInNeed(from, network, maxTransmit, simulate);
+                if(ConfigBoolValues.LASER_RELAY_BUFFERED_ENERGY.isEnabled() && !this.world.isRemote){
+                    transmitted = this.bufferEnergy(from, network, maxTransmit, simulate);
+                }
+                else{
+                    transmitted = this.transferEnergyToReceiverInNeed(from, network, maxTransmit, simulate);
+                }
             }
         }
         return transmitted;
@@ -137,95 +154,273 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         }
     }
 
-    private int transferEnergyToReceiverInNeed(EnumFacing from, Network network, int maxTransfer, boolean simulate){
-        int transmitted = 0;
-        //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
-        Set<BlockPos> alreadyChecked = new ObjectOpenHashSet<>();
-
-        Set<TileEntityLaserRelayEnergy> relaysThatWork = new ObjectOpenHashSet<>();
-        int totalReceiverAmount = 0;
-
-        for(IConnectionPair pair : network.connections){
-            for(BlockPos relay : pair.getPositions()){
-                if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
-                    alreadyChecked.add(relay);
-                    TileEntity relayTile = this.world.getTileEntity(relay);
-                    if(relayTile instanceof TileEntityLaserRelayEnergy){
-                        TileEntityLaserRelayEnergy theRelay = (TileEntityLaserRelayEnergy)relayTile;
-                        if(theRelay.mode != Mode.INPUT_ONLY){
-                            boolean workedOnce = false;
-
-                            for(EnumFacing facing : theRelay.receiversAround.keySet()){
-                                if(theRelay != this || facing != from){
-                                    TileEntity tile = theRelay.receiversAround.get(facing);
-
-                                    EnumFacing opp = facing.getOpposite();
-                                    if(tile != null){
-                                    if(tile.hasCapability(CapabilityEnergy.ENERGY, opp)){
-                                        IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, opp);
-                                        if(cap != null && cap.receiveEnergy(maxTransfer, true) > 0){
-                                            totalReceiverAmount++;
-                                            workedOnce = true;
+    /**
+     * Gets the receivers of the network as seen from this relay, rebuilding them if the network changed
+     */
+    private EnergyReceiver[] getReceivers(Network network){
+        if(this.cachedReceiverNetwork != network || this.receiverChangeAmount != network.changeAmount){
+            List<EnergyReceiver> receivers = new ArrayList<EnergyReceiver>();
+            //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
+            Set<BlockPos> alreadyChecked = new ObjectOpenHashSet<>();
+
+            for(IConnectionPair pair : network.connections){
+                for(BlockPos relay : pair.getPositions()){
+                    if(relay != null && this.world.isBlockLoaded(relay) && alreadyChecked.add(relay)){
+                        TileEntity relayTile = this.world.getTileEntity(relay);
+                        if(relayTile instanceof TileEntityLaserRelayEnergy){
+                            TileEntityLaserRelayEnergy theRelay = (TileEntityLaserRelayEnergy)relayTile;
+                            if(theRelay.mode != Mode.INPUT_ONLY){
+                                double highestLoss = Math.max(theRelay.getLossPercentage(), this.getLossPercentage());
+                                int lowestCap = Math.min(theRelay.getEnergyCap(), this.getEnergyCap());
+
+                                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.receiversAround.entrySet()){
+                                    TileEntity tile = receiver.getValue();
+                                    if(tile != null && alreadyChecked.add(tile.getPos())){
+                                        IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, receiver.getKey().getOpposite());
+                                        if(cap != null){
+                                            receivers.add(new EnergyReceiver(theRelay, receiver.getKey(), tile, cap, lowestCap, highestLoss));
                                         }
                                     }
                                 }
-                                }
-                            }
-
-                            if(workedOnce){
-                                relaysThatWork.add(theRelay);
                             }
                         }
                     }
                 }
             }
+
+            this.receivers = receivers.toArray(new EnergyReceiver[receivers.size()]);
+            TickProfiler.recordNetworkWalk(this, network.connections.size());
+            this.cachedReceiverNetwork = network;
+            this.receiverChangeAmount = network.changeAmount;
         }
+        return this.receivers;
+    }
 
-        if(totalReceiverAmount > 0 && !relaysThatWork.isEmpty()){
+    private int transferEnergyToReceiverInNeed(EnumFacing from, Network network, int maxTransfer, boolean simulate){
+        int transmitted = 0;
+        int totalReceiverAmount = 0;
+
+        EnergyReceiver[] receivers = this.getReceivers(network);
+        for(EnergyReceiver receiver : receivers){
+            receiver.accepting = false;
+            if(receiver.relay != this || receiver.side != from){
+                if(receiver.isValid()){
+                    if(receiver.storage.receiveEnergy(maxTransfer, true) > 0){
+                        receiver.accepting = true;
+                        totalReceiverAmount++;
+                    }
+                }
+                else{
+                    //Something around the network got removed, so rebuild next time
+                    this.receiverChangeAmount = -1;
+                }
+            }
+        }
+
+        if(totalReceiverAmount > 0){
             int amountPer = maxTransfer/totalReceiverAmount;
             if(amountPer <= 0){
                 amountPer = maxTransfer;
             }
 
-            for(TileEntityLaserRelayEnergy theRelay : relaysThatWork){
-                double highestLoss = Math.max(theRelay.getLossPercentage(), this.getLossPercentage());
-                int lowestCap = Math.min(theRelay.getEnergyCap(), this.getEnergyCap());
-                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.receiversAround.entrySet()){
-                    if(receiver != null){
-                        EnumFacing side = receiver.getKey();
-                        EnumFacing opp = side.getOpposite();
-                        TileEntity tile = receiver.getValue();
-                        if(!alreadyChecked.contains(tile.getPos())){
-                            alreadyChecked.add(tile.getPos());
-                            if(theRelay != this || side != from){
-                                if(tile.hasCapability(CapabilityEnergy.ENERGY, opp)){
-                                    IEnergyStorage cap = tile.getCapability(CapabilityEnergy.ENERGY, opp);
-                                    if(cap != null){
-                                        int theoreticalReceived = cap.receiveEnergy(Math.min(amountPer, lowestCap), true);
-                                        if(theoreticalReceived > 0){
-                                            int deduct = this.calcDeduction(theoreticalReceived, highestLoss);
-                                            if(deduct >= theoreticalReceived){ //Happens with small numbers
-                                                deduct = 0;
-                                            }
-
-                                            transmitted += cap.receiveEnergy(theoreticalReceived-deduct, simulate);
-                                            transmitted += deduct;
-                                        }
-                                    }
-                                }
+            for(EnergyReceiver receiver : receivers){
+                if(receiver.accepting){
+                    int theoreticalReceived = receiver.storage.receiveEnergy(Math.min(amountPer, receiver.lowestCap), true);
+                    if(theoreticalReceived > 0){
+                        int deduct = this.calcDeduction(theoreticalReceived, receiver.highestLoss);
+                        if(deduct >= theoreticalReceived){ //Happens with small numbers
+                            deduct = 0;
+                        }
+
+                        transmitted += receiver.storage.receiveEnergy(theoreticalReceived-deduct, simulate);
+                        transmitted += deduct;
+                    }
+
+                    //If everything that could be transmitted was transmitted
+                    if(transmitted >= maxTransfer){
+                        return transmitted;
+                    }
+                }
+            }
+        }
+
+        return transmitted;
+    }
+
+    /**
+     * Collects energy for the network to be split up between all receivers at the end of the tick.
+     * Only as much is accepted as the receivers, without the ones the energy comes from, can take through this relay.
+     */
+    private int bufferEnergy(EnumFacing from, Network network, int maxTransmit, boolean simulate){
+        BufferedEnergy buffer = getBufferedEnergy(network);
+        RelayBuffer relayBuffer = buffer.getRelayBuffer(this);
+        if(!relayBuffer.hasCapacity){
+            this.calcBufferCapacity(network, buffer, relayBuffer);
+        }
+
+        //Energy can't be sent back to where it came from, so that receiver's space doesn't count
+        BlockPos source = this.pos.offset(from);
+        long relaySpace = relayBuffer.capacity-relayBuffer.space.getLong(source)-relayBuffer.stored;
+        long networkSpace = buffer.networkSpace-buffer.receiverSpace.getLong(source)-buffer.stored;
+
+        int amount = (int)Math.min(Math.min(maxTransmit, this.getEnergyCap()), Math.min(relaySpace, networkSpace));
+        if(amount <= 0){
+            return 0;
+        }
+
+        if(!simulate){
+            buffer.addSource(source);
+            relayBuffer.stored += amount;
+            buffer.stored += amount;
+        }
+        return amount;
+    }
+
+    private void calcBufferCapacity(Network network, BufferedEnergy buffer, RelayBuffer relayBuffer){
+        for(EnergyReceiver receiver : this.getReceivers(network)){
+            if(receiver.isValid()){
+                BlockPos pos = receiver.tile.getPos();
+                if(!buffer.sources.contains(pos)){
+                    if(!buffer.receiverSpace.containsKey(pos)){
+                        int space = receiver.storage.receiveEnergy(Integer.MAX_VALUE, true);
+                        buffer.receiverSpace.put(pos, space);
+                        buffer.networkSpace += space;
+                    }
+
+                    long space = Math.min(receiver.lowestCap, buffer.receiverSpace.getLong(pos));
+                    relayBuffer.space.put(pos, space);
+                    relayBuffer.capacity += space;
+                }
+            }
+        }
+        relayBuffer.hasCapacity = true;
+    }
+
+    /**
+     * Splits up the energy that was buffered into all networks during this tick, each amount with the
+     * caps and loss of the relay that accepted it. Whatever the receivers can't take is kept for the next tick.
+     */
+    public static void distributeBufferedEnergy(){
+        if(!BUFFERED_ENERGY.isEmpty()){
+            List<BufferedEnergy> buffers = new ArrayList<BufferedEnergy>(BUFFERED_ENERGY.values());
+            BUFFERED_ENERGY.clear();
+
+            for(BufferedEnergy buffer : buffers){
+                for(Map.Entry<TileEntityLaserRelayEnergy, RelayBuffer> entry : buffer.relays.entrySet()){
+                    long stored = entry.getValue().stored;
+                    if(stored > 0){
+                        TileEntityLaserRelayEnergy relay = entry.getKey();
+                        if(relay.isInvalid()){
+                            relay = findValidRelay(relay.getWorld(), buffer.network);
+                        }
 
-                                //If everything that could be transmitted was transmitted
-                                if(transmitted >= maxTransfer){
-                                    return transmitted;
+                        //If there is no relay of the network left, there is nowhere for the energy to go anymore
+                        Network network = relay != null ? relay.getNetwork() : null;
+                        if(network != null){
+                            long remaining = relay.distributeBufferedEnergy(network, stored, buffer.sources);
+                            if(remaining > 0){
+                                BufferedEnergy nextBuffer = getBufferedEnergy(network);
+                                //The energy still can't go back to where it came from
+                                for(BlockPos source : buffer.sources){
+                                    nextBuffer.addSource(source);
                                 }
+                                nextBuffer.getRelayBuffer(relay).stored += remaining;
+                                nextBuffer.stored += remaining;
                             }
                         }
                     }
                 }
             }
         }
+    }
 
-        return transmitted;
+    public static void clearBufferedEnergy(){
+        BUFFERED_ENERGY.clear();
+    }
+
+    private static BufferedEnergy getBufferedEnergy(Network network){
+        BufferedEnergy buffer = BUFFERED_ENERGY.get(network);
+        if(buffer == null){
+            buffer = new BufferedEnergy(network);
+            BUFFERED_ENERGY.put(network, buffer);
+        }
+        return buffer;
+    }
+
+    private static TileEntityLaserRelayEnergy findValidRelay(World world, Network network){
+        for(IConnectionPair pair : network.connections){
+            for(BlockPos pos : pair.getPositions()){
+                if(pos != null && world.isBlockLoaded(pos)){
+                    TileEntity tile = world.getTileEntity(pos);
+                    if(tile instanceof TileEntityLaserRelayEnergy && !tile.isInvalid()){
+                        return (TileEntityLaserRelayEnergy)tile;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the amount of energy that couldn't be given to any receiver
+     */
+    private long distributeBufferedEnergy(Network network, long amount, Set<BlockPos> sources){
+        EnergyReceiver[] receivers = this.getReceivers(network);
+
+        int accepting = 0;
+        for(EnergyReceiver receiver : receivers){
+            receiver.accepting = receiver.isValid() && !sources.contains(receiver.tile.getPos());
+            if(receiver.accepting){
+                receiver.budget = receiver.lowestCap;
+                accepting++;
+            }
+        }
+
+        //Split evenly, then hand what full receivers couldn't take to the ones that still have room
+        long remaining = amount;
+        while(remaining > 0 && accepting > 0){
+            int amountPer = (int)Math.max(1, Math.min(Integer.MAX_VALUE, remaining/accepting));
+            long remainingBefore = remaining;
+            accepting = 0;
+
+            for(EnergyReceiver receiver : receivers){
+                if(receiver.accepting){
+                    int offer = (int)Math.min(Math.min(amountPer, receiver.budget), remaining);
+                    int theoreticalReceived = receiver.storage.receiveEnergy(offer, true);
+                    int transmitted = 0;
+                    if(theoreticalReceived > 0){
+                        int deduct = this.calcDeduction(theoreticalReceived, receiver.highestLoss);
+                        if(deduct >= theoreticalReceived){ //Happens with small numbers
+                            deduct = 0;
+                        }
+
+                        //Storages can take less than they said they would, so loss only applies to what actually arrived
+                        int received = receiver.storage.receiveEnergy(theoreticalReceived-deduct, false);
+                        if(received > 0){
+                            transmitted = received+deduct;
+                            receiver.budget -= transmitted;
+                            remaining -= transmitted;
+                        }
+                    }
+
+                    if(transmitted <= 0 || theoreticalReceived < offer || receiver.budget <= 0){
+                        receiver.accepting = false;
+                    }
+                    else{
+                        accepting++;
+                    }
+
+                    if(remaining <= 0){
+                        return 0;
+                    }
+                }
+            }
+
+            if(remaining >= remainingBefore){
+                break;
+            }
+        }
+        return remaining;
     }
 
     private int calcDeduction(int theoreticalReceived, double highestLoss){
@@ -278,6 +473,78 @@ public class TileEntityLaserRelayEnergy extends TileEntityLaserRelay{
         }
     }
 
+    private static class EnergyReceiver{
+
+        public final TileEntityLaserRelayEnergy relay;
+        public final EnumFacing side;
+        public final TileEntity tile;
+        public final IEnergyStorage storage;
+        public final int lowestCap;
+        public final double highestLoss;
+        public boolean accepting;
+        public int budget;
+
+        public EnergyReceiver(TileEntityLaserRelayEnergy relay, EnumFacing side, TileEntity tile, IEnergyStorage storage, int lowestCap, double highestLoss){
+            this.relay = relay;
+            this.side = side;
+            this.tile = tile;
+            this.storage = storage;
+            this.lowestCap = lowestCap;
+            this.highestLoss = highestLoss;
+        }
+
+        public boolean isValid(){
+            //Chunks loading and unloading change the network, so there is no need to check for that here
+            return !this.relay.isInvalid() && !this.tile.isInvalid();
+        }
+    }
+
+    private static class BufferedEnergy{
+
+        public final Network network;
+        public final Set<BlockPos> sources = new ObjectOpenHashSet<>();
+        public final Map<TileEntityLaserRelayEnergy, RelayBuffer> relays = new LinkedHashMap<TileEntityLaserRelayEnergy, RelayBuffer>();
+        //What every receiver of the network can take this tick, no matter through which relay
+        public final Object2LongMap<BlockPos> receiverSpace = new Object2LongOpenHashMap<>();
+        public long networkSpace;
+        public long stored;
+
+        public BufferedEnergy(Network network){
+            this.network = network;
+        }
+
+        public RelayBuffer getRelayBuffer(TileEntityLaserRelayEnergy relay){
+            RelayBuffer buffer = this.relays.get(relay);
+            if(buffer == null){
+                buffer = new RelayBuffer();
+                this.relays.put(relay, buffer);
+            }
+            return buffer;
+        }
+
+        public void addSource(BlockPos source){
+            if(this.sources.add(source)){
+                if(this.receiverSpace.containsKey(source)){
+                    this.networkSpace -= this.receiverSpace.removeLong(source);
+                }
+                for(RelayBuffer buffer : this.relays.values()){
+                    if(buffer.space.containsKey(source)){
+                        buffer.capacity -= buffer.space.removeLong(source);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class RelayBuffer{
+
+        //What every receiver can take through this relay with its cap this tick
+        public final Object2LongMap<BlockPos> space = new Object2LongOpenHashMap<>();
+        public boolean hasCapacity;
+        public long capacity;
+        public long stored;
+    }
+
     public enum Mode{
         BOTH("info."+ActuallyAdditions.MODID+".laserRelay.mode.both"),
         OUTPUT_ONLY("info."+ActuallyAdditions.MODID+".laserRelay.mode.outputOnly"),
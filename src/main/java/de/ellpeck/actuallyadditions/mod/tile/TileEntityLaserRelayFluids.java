@@ -16,6 +16,7 @@ import de.ellpeck.actuallyadditions.api.laser.Network;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityLaserRelayEnergy.Mode;
 import de.ellpeck.actuallyadditions.mod.util.StringUtil;
+import de.ellpeck.actuallyadditions.mod.util.TickProfiler;
 import de.ellpeck.actuallyadditions.mod.util.WorldUtil;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
@@ -23,6 +24,7 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler;
@@ -30,18 +32,27 @@ import net.minecraftforge.fluids.capability.IFluidTankProperties;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
 
+    //How long a receiver that didn't accept a fluid won't be asked for that fluid again
+    private static final int REJECTION_MEMORY_TICKS = 20;
+
     public final ConcurrentHashMap<EnumFacing, TileEntity> handlersAround = new ConcurrentHashMap<EnumFacing, TileEntity>();
     private final IFluidHandler[] fluidHandlers = new IFluidHandler[6];
     private Mode mode = Mode.BOTH;
 
+    private Network cachedReceiverNetwork;
+    private int receiverChangeAmount = -1;
+    private FluidReceiver[] receivers = new FluidReceiver[0];
+
     public TileEntityLaserRelayFluids(){
         super("laserRelayFluids", LaserType.FLUID);
 
@@ -76,7 +87,7 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
         super.updateEntity();
 
         if(!this.world.isRemote){
-            if(this.mode == Mode.INPUT_ONLY){
+            if(this.mode == Mode.INPUT_ONLY && !this.handlersAround.isEmpty() && this.hasReceivers()){
                 for(EnumFacing side : this.handlersAround.keySet()){
                     WorldUtil.doFluidInteraction(this.handlersAround.get(side), this, side.getOpposite(), Integer.MAX_VALUE);
                 }
@@ -125,9 +136,14 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
         return this.fluidHandlers[facing == null ? 0 : facing.ordinal()];
     }
 
+    private boolean hasReceivers(){
+        Network network = this.getNetwork();
+        return network != null && this.getReceivers(network).length > 0;
+    }
+
     private int transmitFluid(EnumFacing from, FluidStack stack, boolean doFill){
         int transmitted = 0;
-        if(stack != null && this.mode != Mode.OUTPUT_ONLY){
+        if(stack != null && stack.amount > 0 && this.mode != Mode.OUTPUT_ONLY){
             Network network = this.getNetwork();
             if(network != null){
                 transmitted = this.transferFluidToReceiverInNeed(from, network, stack, doFill);
@@ -136,78 +152,86 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
         return transmitted;
     }
 
-    private int transferFluidToReceiverInNeed(EnumFacing from, Network network, FluidStack stack, boolean doFill){
-        int transmitted = 0;
-        //Keeps track of all the Laser Relays and Energy Acceptors that have been checked already to make nothing run multiple times
-        Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
-
-        Set<TileEntityLaserRelayFluids> relaysThatWork = new HashSet<TileEntityLaserRelayFluids>();
-        int totalReceiverAmount = 0;
-
-        for(IConnectionPair pair : network.connections){
-            for(BlockPos relay : pair.getPositions()){
-                if(relay != null && this.world.isBlockLoaded(relay) && !alreadyChecked.contains(relay)){
-                    alreadyChecked.add(relay);
-                    TileEntity relayTile = this.world.getTileEntity(relay);
-                    if(relayTile instanceof TileEntityLaserRelayFluids){
-                        TileEntityLaserRelayFluids theRelay = (TileEntityLaserRelayFluids)relayTile;
-                        if(theRelay.mode != Mode.INPUT_ONLY){
-                            boolean workedOnce = false;
-
-                            for(EnumFacing facing : theRelay.handlersAround.keySet()){
-                                if(theRelay != this || facing != from){
-                                    TileEntity tile = theRelay.handlersAround.get(facing);
-
-                                    EnumFacing opp = facing.getOpposite();
-                                    if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp)){
-                                        IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp);
-                                        if(cap != null && cap.fill(stack, false) > 0){
-                                            totalReceiverAmount++;
-                                            workedOnce = true;
+    /**
+     * Gets the receivers of the network as seen from this relay, rebuilding them if the network changed
+     */
+    private FluidReceiver[] getReceivers(Network network){
+        if(this.cachedReceiverNetwork != network || this.receiverChangeAmount != network.changeAmount){
+            List<FluidReceiver> receivers = new ArrayList<FluidReceiver>();
+            //Keeps track of all the Laser Relays and Fluid Acceptors that have been checked already to make nothing run multiple times
+            Set<BlockPos> alreadyChecked = new HashSet<BlockPos>();
+
+            for(IConnectionPair pair : network.connections){
+                for(BlockPos relay : pair.getPositions()){
+                    if(relay != null && this.world.isBlockLoaded(relay) && alreadyChecked.add(relay)){
+                        TileEntity relayTile = this.world.getTileEntity(relay);
+                        if(relayTile instanceof TileEntityLaserRelayFluids){
+                            TileEntityLaserRelayFluids theRelay = (TileEntityLaserRelayFluids)relayTile;
+                            if(theRelay.mode != Mode.INPUT_ONLY){
+                                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.handlersAround.entrySet()){
+                                    TileEntity tile = receiver.getValue();
+                                    if(tile != null && alreadyChecked.add(tile.getPos())){
+                                        IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, receiver.getKey().getOpposite());
+                                        if(cap != null){
+                                            receivers.add(new FluidReceiver(theRelay, receiver.getKey(), tile, cap));
                                         }
                                     }
                                 }
                             }
-
-                            if(workedOnce){
-                                relaysThatWork.add(theRelay);
-                            }
                         }
                     }
                 }
             }
+
+            this.receivers = receivers.toArray(new FluidReceiver[receivers.size()]);
+            TickProfiler.recordNetworkWalk(this, network.connections.size());
+            this.cachedReceiverNetwork = network;
+            this.receiverChangeAmount = network.changeAmount;
         }
+        return this.receivers;
+    }
 
-        if(totalReceiverAmount > 0 && !relaysThatWork.isEmpty()){
+    private int transferFluidToReceiverInNeed(EnumFacing from, Network network, FluidStack stack, boolean doFill){
+        int transmitted = 0;
+        int totalReceiverAmount = 0;
+        long time = this.world.getTotalWorldTime();
+
+        FluidReceiver[] receivers = this.getReceivers(network);
+        for(FluidReceiver receiver : receivers){
+            receiver.accepting = false;
+            if((receiver.relay != this || receiver.side != from) && !receiver.hasRejected(stack, time)){
+                if(receiver.isValid()){
+                    if(receiver.handler.fill(stack, false) > 0){
+                        receiver.accepting = true;
+                        totalReceiverAmount++;
+                    }
+                    else{
+                        receiver.rejectedFluid = stack.getFluid();
+                        receiver.rejectedUntil = time+REJECTION_MEMORY_TICKS;
+                    }
+                }
+                else{
+                    //Something around the network got removed, so rebuild next time
+                    this.receiverChangeAmount = -1;
+                }
+            }
+        }
+
+        if(totalReceiverAmount > 0){
             int amountPer = stack.amount/totalReceiverAmount;
             if(amountPer <= 0){
                 amountPer = stack.amount;
             }
 
-            for(TileEntityLaserRelayFluids theRelay : relaysThatWork){
-                for(Map.Entry<EnumFacing, TileEntity> receiver : theRelay.handlersAround.entrySet()){
-                    if(receiver != null){
-                        EnumFacing side = receiver.getKey();
-                        EnumFacing opp = side.getOpposite();
-                        TileEntity tile = receiver.getValue();
-                        if(!alreadyChecked.contains(tile.getPos())){
-                            alreadyChecked.add(tile.getPos());
-                            if(theRelay != this || side != from){
-                                if(tile.hasCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp)){
-                                    IFluidHandler cap = tile.getCapability(CapabilityFluidHandler.FLUID_HANDLER_CAPABILITY, opp);
-                                    if(cap != null){
-                                        FluidStack copy = stack.copy();
-                                        copy.amount = amountPer;
-                                        transmitted += cap.fill(copy, doFill);
-                                    }
-                                }
+            for(FluidReceiver receiver : receivers){
+                if(receiver.accepting){
+                    FluidStack copy = stack.copy();
+                    copy.amount = amountPer;
+                    transmitted += receiver.handler.fill(copy, doFill);
 
-                                //If everything that could be transmitted was transmitted
-                                if(transmitted >= stack.amount){
-                                    return transmitted;
-                                }
-                            }
-                        }
+                    //If everything that could be transmitted was transmitted
+                    if(transmitted >= stack.amount){
+                        return transmitted;
                     }
                 }
             }
@@ -253,4 +277,31 @@ public class TileEntityLaserRelayFluids extends TileEntityLaserRelay{
             }
         }
     }
+
+    private static class FluidReceiver{
+
+        public final TileEntityLaserRelayFluids relay;
+        public final EnumFacing side;
+        public final TileEntity tile;
+        public final IFluidHandler handler;
+        public boolean accepting;
+        public Fluid rejectedFluid;
+        public long rejectedUntil;
+
+        public FluidReceiver(TileEntityLaserRelayFluids relay, EnumFacing side, TileEntity tile, IFluidHandler handler){
+            this.relay = relay;
+            this.side = side;
+            this.tile = tile;
+            this.handler = handler;
+        }
+
+        public boolean hasRejected(FluidStack stack, long time){
+            return this.rejectedFluid == stack.getFluid() && time < this.rejectedUntil;
+        }
+
+        public boolean isValid(){
+            //Chunks loading and unloading change the network, so there is no need to check for that here
+            return !this.relay.isInvalid() && !this.tile.isInvalid();
+        }
+    }
 }
@@ -46,6 +46,11 @@ public class TileEntityLeafGenerator extends TileEntityBase implements ISharingE
         this.storage.readFromNBT(compound);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        return "Energy".equals(key) ? SyncInterest.HUD : super.getSyncInterest(key);
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
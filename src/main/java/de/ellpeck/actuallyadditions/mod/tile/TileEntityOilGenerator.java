@@ -10,9 +10,9 @@
 
 package de.ellpeck.actuallyadditions.mod.tile;
 
-import de.ellpeck.actuallyadditions.api.ActuallyAdditionsAPI;
 import de.ellpeck.actuallyadditions.api.recipe.OilGenRecipe;
 import de.ellpeck.actuallyadditions.mod.config.values.ConfigIntListValues;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
 import de.ellpeck.actuallyadditions.mod.util.Util;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
@@ -57,14 +57,7 @@ public class TileEntityOilGenerator extends TileEntityBase implements ISharingEn
     }
 
     private static OilGenRecipe getRecipeForFluid(String fluidName){
-        if(fluidName != null){
-            for(OilGenRecipe recipe : ActuallyAdditionsAPI.OIL_GENERATOR_RECIPES){
-                if(recipe != null && fluidName.equals(recipe.fluidName)){
-                    return recipe;
-                }
-            }
-        }
-        return null;
+        return RecipeIndexes.OIL_GENERATOR.find(fluidName);
     }
 
     @SideOnly(Side.CLIENT)
@@ -107,6 +100,21 @@ public class TileEntityOilGenerator extends TileEntityBase implements ISharingEn
         super.readSyncableNBT(compound, type);
     }
 
+    @Override
+    public SyncInterest getSyncInterest(String key){
+        switch(key){
+            case "Energy":
+            case "CurrentEnergy":
+            case "FluidName":
+            case "Amount":
+            case "Tag":
+            case "Empty":
+                return SyncInterest.GUI;
+            default:
+                return super.getSyncInterest(key);
+        }
+    }
+
     @Override
     public void updateEntity(){
         super.updateEntity();
@@ -181,6 +181,12 @@ public abstract class TileEntityPhantomface extends TileEntityInventoryBase impl
 
     protected abstract boolean isCapabilitySupported(Capability<?> capability);
 
+    //The capabilities belong to the bound tile, which can change at any time
+    @Override
+    public boolean hasStableCapabilities(){
+        return false;
+    }
+
     @Override
     public boolean hasCapability(Capability<?> capability, EnumFacing facing){
         if(this.isBoundThingInRange() && this.isCapabilitySupported(capability)){
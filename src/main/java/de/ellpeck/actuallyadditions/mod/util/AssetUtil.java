@@ -13,8 +13,8 @@ package de.ellpeck.actuallyadditions.mod.util;
 import org.lwjgl.opengl.GL11;
 
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
-import de.ellpeck.actuallyadditions.mod.network.PacketHandler;
-import de.ellpeck.actuallyadditions.mod.network.PacketServerToClient;
+import de.ellpeck.actuallyadditions.mod.network.LaserEffectDispatcher;
+import de.ellpeck.actuallyadditions.mod.network.LaserEffectDispatcher.LaserEffect;
 import de.ellpeck.actuallyadditions.mod.particle.ParticleBeam;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
 import net.minecraft.block.Block;
@@ -36,14 +36,12 @@ import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraftforge.client.ForgeHooksClient;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -223,21 +221,7 @@ public final class AssetUtil{
 
     public static void spawnLaserWithTimeServer(World world, double startX, double startY, double startZ, double endX, double endY, double endZ, float[] color, int maxAge, double rotationTime, float size, float alpha){
         if(!world.isRemote){
-            NBTTagCompound data = new NBTTagCompound();
-            data.setDouble("StartX", startX);
-            data.setDouble("StartY", startY);
-            data.setDouble("StartZ", startZ);
-            data.setDouble("EndX", endX);
-            data.setDouble("EndY", endY);
-            data.setDouble("EndZ", endZ);
-            data.setFloat("Color1", color[0]);
-            data.setFloat("Color2", color[1]);
-            data.setFloat("Color3", color[2]);
-            data.setDouble("RotationTime", rotationTime);
-            data.setFloat("Size", size);
-            data.setInteger("MaxAge", maxAge);
-            data.setFloat("Alpha", alpha);
-            PacketHandler.theNetwork.sendToAllAround(new PacketServerToClient(data, PacketHandler.LASER_HANDLER), new NetworkRegistry.TargetPoint(world.provider.getDimension(), startX, startY, startZ, 96));
+            LaserEffectDispatcher.queue(world, new LaserEffect(startX, startY, startZ, endX, endY, endZ, color, maxAge, rotationTime, size, alpha));
         }
     }
 
@@ -0,0 +1,25 @@
+/*
+ * This file ("PhaseTimer.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.util;
+
+import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
+
+/**
+ * Logs how long the different parts of loading take so that it's easy to see when one of them gets slower
+ */
+public final class PhaseTimer{
+
+    public static void run(String phase, Runnable runnable){
+        long startTime = System.nanoTime();
+        runnable.run();
+        ActuallyAdditions.LOGGER.info("Finished "+phase+" in "+(System.nanoTime()-startTime)/1000000+"ms.");
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file ("TickProfiler.java") is part of the Actually Additions mod for Minecraft.
+ * It is created and owned by Ellpeck and distributed
+ * under the Actually Additions License to be found at
+ * http://ellpeck.de/actaddlicense
+ * View the source code at https://github.com/Ellpeck/ActuallyAdditions
+ *
+ * © 2015-2017 Ellpeck
+ */
+
+package de.ellpeck.actuallyadditions.mod.util;
+
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeIndexes;
+import de.ellpeck.actuallyadditions.mod.recipe.RecipeLookup;
+import de.ellpeck.actuallyadditions.mod.tile.TileEntityBase;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how much tick time the tiles of the mod take, how many sync packets they send
+ * and how often the Laser Relays walk their networks, controlled by the /aa profile command.
+ * Everything is recorded on the server thread, and nothing is done while it isn't running.
+ */
+public final class TickProfiler{
+
+    private static final Map<Class<?>, Stats> CLASS_TICKS = new HashMap<Class<?>, Stats>();
+    private static final Map<Integer, Long2ObjectMap<Stats>> TILE_TICKS = new HashMap<Integer, Long2ObjectMap<Stats>>();
+    private static final Map<Class<?>, Stats> SYNC_PACKETS = new HashMap<Class<?>, Stats>();
+    private static final Map<Class<?>, Stats> NETWORK_WALKS = new HashMap<Class<?>, Stats>();
+
+    private static boolean running;
+    private static long startTime;
+    private static long profiledTime;
+
+    public static boolean isRunning(){
+        return running;
+    }
+
+    public static void start(){
+        CLASS_TICKS.clear();
+        TILE_TICKS.clear();
+        SYNC_PACKETS.clear();
+        NETWORK_WALKS.clear();
+
+        profiledTime = 0;
+        startTime = System.nanoTime();
+        running = true;
+    }
+
+    public static void stop(){
+        if(running){
+            profiledTime += System.nanoTime()-startTime;
+            running = false;
+        }
+    }
+
+    public static long getProfiledTime(){
+        return running ? profiledTime+System.nanoTime()-startTime : profiledTime;
+    }
+
+    public static void recordTick(TileEntityBase tile, long time){
+        getStats(CLASS_TICKS, tile.getClass()).add(time);
+
+        int dimension = tile.getWorld().provider.getDimension();
+        Long2ObjectMap<Stats> tiles = TILE_TICKS.get(dimension);
+        if(tiles == null){
+            tiles = new Long2ObjectOpenHashMap<Stats>();
+            TILE_TICKS.put(dimension, tiles);
+        }
+
+        long pos = tile.getPos().toLong();
+        Stats stats = tiles.get(pos);
+        if(stats == null){
+            stats = new Stats(tile.getClass().getSimpleName(), dimension, tile.getPos());
+            tiles.put(pos, stats);
+        }
+        stats.add(time);
+    }
+
+    public static void recordSyncPacket(TileEntityBase tile, IMessage packet){
+        if(running){
+            ByteBuf buf = Unpooled.buffer();
+            packet.toBytes(buf);
+            getStats(SYNC_PACKETS, tile.getClass()).add(buf.readableBytes());
+            buf.release();
+        }
+    }
+
+    public static void recordNetworkWalk(TileEntity relay, int connections){
+        if(running && !relay.getWorld().isRemote){
+            getStats(NETWORK_WALKS, relay.getClass()).add(connections);
+        }
+    }
+
+    public static List<Stats> getTopTicks(int amount){
+        return getTop(CLASS_TICKS.values(), amount);
+    }
+
+    /**
+     * Writes the top entries of everything that was recorded into a CSV file
+     */
+    public static void dump(File file, int amount) throws IOException{
+        List<Stats> tiles = new ArrayList<Stats>();
+        for(Long2ObjectMap<Stats> dimension : TILE_TICKS.values()){
+            tiles.addAll(dimension.values());
+        }
+
+        try(PrintWriter writer = new PrintWriter(file, "UTF-8")){
+            writer.println("category,name,dimension,x,y,z,count,total,average");
+            writer.println("profiled_nanos,,,,,,,"+getProfiledTime()+",");
+            writeStats(writer, "class_tick_nanos", getTop(CLASS_TICKS.values(), amount));
+            writeStats(writer, "tile_tick_nanos", getTop(tiles, amount));
+            writeStats(writer, "sync_packet_bytes", getTop(SYNC_PACKETS.values(), amount));
+            writeStats(writer, "network_walk_connections", getTop(NETWORK_WALKS.values(), amount));
+
+            writer.println("queued_tile_updates,requested,,,,,"+TileEntityBase.getQueuedUpdateRequests()+",,");
+            writer.println("queued_tile_updates,sent,,,,,"+TileEntityBase.getSentQueuedUpdates()+",,");
+            for(RecipeLookup<?> lookup : RecipeIndexes.ALL){
+                writer.println("recipe_lookups,"+lookup.getName()+",,,,,"+(lookup.getHits()+lookup.getMisses())+","+lookup.getHits()+",");
+            }
+        }
+    }
+
+    private static void writeStats(PrintWriter writer, String category, List<Stats> stats){
+        for(Stats stat : stats){
+            String position = stat.pos != null ? stat.dimension+","+stat.pos.getX()+","+stat.pos.getY()+","+stat.pos.getZ() : ",,,";
+            writer.println(category+","+stat.name+","+position+","+stat.count+","+stat.total+","+stat.getAverage());
+        }
+    }
+
+    private static List<Stats> getTop(Collection<Stats> stats, int amount){
+        List<Stats> sorted = new ArrayList<Stats>(stats);
+        sorted.sort((first, second) -> Long.compare(second.total, first.total));
+        return sorted.size() > amount ? sorted.subList(0, amount) : sorted;
+    }
+
+    private static Stats getStats(Map<Class<?>, Stats> map, Class<?> clazz){
+        Stats stats = map.get(clazz);
+        if(stats == null){
+            stats = new Stats(clazz.getSimpleName(), 0, null);
+            map.put(clazz, stats);
+        }
+        return stats;
+    }
+
+    public static class Stats{
+
+        public final String name;
+        public final int dimension;
+        public final BlockPos pos;
+        public long count;
+        public long total;
+
+        public Stats(String name, int dimension, BlockPos pos){
+            this.name = name;
+            this.dimension = dimension;
+            this.pos = pos;
+        }
+
+        public void add(long value){
+            this.count++;
+            this.total += value;
+        }
+
+        public long getAverage(){
+            return this.count > 0 ? this.total/this.count : 0;
+        }
+    }
+}
@@ -13,14 +13,16 @@ package de.ellpeck.actuallyadditions.mod.util.compat;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityItemViewer;
 import de.ellpeck.actuallyadditions.mod.tile.TileEntityItemViewer.SlotlessItemHandlerInfo;
 import de.ellpeck.actuallyadditions.mod.util.StackUtil;
+import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
 import org.cyclops.commoncapabilities.api.capability.itemhandler.DefaultSlotlessItemHandlerWrapper;
 import org.cyclops.commoncapabilities.api.capability.itemhandler.ISlotlessItemHandler;
+import org.cyclops.commoncapabilities.api.capability.itemhandler.ItemMatch;
 
 public final class CommonCapsUtil{
 
-    public static ISlotlessItemHandler createSlotlessItemViewerHandler(final TileEntityItemViewer tile, IItemHandler normalHandler){
+    public static ISlotlessItemHandler createSlotlessItemViewerHandler(final TileEntityItemViewer tile, final IItemHandler normalHandler){
         return new DefaultSlotlessItemHandlerWrapper(normalHandler){
             @Override
             public ItemStack insertItem(ItemStack stack, boolean simulate){
@@ -41,7 +43,27 @@ public final class CommonCapsUtil{
                         }
                     }
                 }
-                return super.insertItem(remain, simulate);
+                if(!StackUtil.isValid(remain)){
+                    return remain;
+                }
+
+                //Fill up slots that already have the item first, then empty ones
+                remain = this.insertIndexed(TileEntityItemViewer.getIndexKey(remain.getItem(), remain.getMetadata()), remain, simulate);
+                if(StackUtil.isValid(remain)){
+                    remain = this.insertIndexed(TileEntityItemViewer.getIndexKey(Items.AIR, 0), remain, simulate);
+                }
+                return remain;
+            }
+
+            private ItemStack insertIndexed(long key, ItemStack stack, boolean simulate){
+                int slot = -1;
+                while((slot = tile.getNextIndexedSlot(key, slot)) >= 0){
+                    stack = normalHandler.insertItem(slot, stack, simulate);
+                    if(!StackUtil.isValid(stack)){
+                        return StackUtil.getEmpty();
+                    }
+                }
+                return stack;
             }
 
             @Override
@@ -97,8 +119,30 @@ public final class CommonCapsUtil{
                         }
                     }
                 }
+                if((matchFlags & ItemMatch.ITEM) != 0 && StackUtil.isValid(matchStack)){
+                    return this.extractIndexed(matchStack, matchFlags, simulate);
+                }
                 return super.extractItem(matchStack, matchFlags, simulate);
             }
+
+            //Only looks at the slots that have the item in question, and with the same meta if that has to match
+            private ItemStack extractIndexed(ItemStack matchStack, int matchFlags, boolean simulate){
+                int meta = (matchFlags & ItemMatch.DAMAGE) != 0 ? matchStack.getMetadata() : TileEntityItemViewer.ANY_META;
+                long key = TileEntityItemViewer.getIndexKey(matchStack.getItem(), meta);
+                int slot = -1;
+                while((slot = tile.getNextIndexedSlot(key, slot)) >= 0){
+                    ItemStack would = normalHandler.extractItem(slot, matchStack.getCount(), true);
+                    if(StackUtil.isValid(would) && ItemMatch.areItemStacksEqual(would, matchStack, matchFlags)){
+                        if(simulate){
+                            return would;
+                        }
+                        else{
+                            return normalHandler.extractItem(slot, matchStack.getCount(), false);
+                        }
+                    }
+                }
+                return StackUtil.getEmpty();
+            }
         };
     }
 
@@ -3,6 +3,8 @@ package de.ellpeck.actuallyadditions.mod.util.crafting;
 import de.ellpeck.actuallyadditions.api.misc.IDisableableItem;
 import de.ellpeck.actuallyadditions.mod.ActuallyAdditions;
 import de.ellpeck.actuallyadditions.mod.RegistryHandler;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -12,11 +14,14 @@ import net.minecraft.item.crafting.ShapedRecipes;
 import net.minecraft.item.crafting.ShapelessRecipes;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
-import net.minecraftforge.common.crafting.CraftingHelper;
-import net.minecraftforge.common.crafting.CraftingHelper.ShapedPrimer;
+import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.OreIngredient;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 //This class created by Shadows_of_Fire 
 //MIT License
@@ -26,6 +31,12 @@ public final class RecipeHelper{
     private static final String MODID = ActuallyAdditions.MODID;
     private static final String MODNAME = ActuallyAdditions.NAME;
     public static final List<IRecipe> RECIPE_LIST = RegistryHandler.RECIPES_TO_REGISTER;
+    //Ore ingredients only look at the live Ore Dictionary list, so recipes can share them
+    private static final Map<String, Ingredient> ORE_INGREDIENTS = new HashMap<>();
+    //Ingredients of plain stacks by item and meta, so recipes using the same input share them too
+    private static final Map<Item, Int2ObjectMap<Ingredient>> STACK_INGREDIENTS = new HashMap<>();
+    //Shaped recipes are declared with their raw inputs first and get their ingredients in one go in resolveDeclaredRecipes
+    private static final List<DeclaredRecipe> DECLARED_RECIPES = new ArrayList<>();
 
     /*
      * This adds the recipe to the list of crafting recipes.  Since who cares about names, it adds it as recipesX, where X is the current recipe you are adding.
@@ -53,27 +64,27 @@ public final class RecipeHelper{
      * This adds a shaped recipe to the list of crafting recipes, using the forge format.
      */
     public static void addOldShaped(ItemStack output, Object... input){
-        ShapedPrimer primer = CraftingHelper.parseShaped(input);
-        addRecipe(j++, new ShapedRecipes(new ResourceLocation(MODID, "recipes"+j).toString(), primer.width,
-                primer.height, primer.input, output));
+        DeclaredShape shape = parseShape(input);
+        addRecipe(j++, declareShaped(new ResourceLocation(MODID, "recipes"+j).toString(), shape.width,
+                shape.height, shape.inputs, output));
     }
 
     /*
      * This adds a shaped recipe to the list of crafting recipes, using the forge format, with a custom group.
      */
     public static void addOldShaped(String group, ItemStack output, Object... input){
-        ShapedPrimer primer = CraftingHelper.parseShaped(input);
-        addRecipe(j++, new ShapedRecipes(new ResourceLocation(MODID, group).toString(), primer.width, primer.height,
-                primer.input, output));
+        DeclaredShape shape = parseShape(input);
+        addRecipe(j++, declareShaped(new ResourceLocation(MODID, group).toString(), shape.width, shape.height,
+                shape.inputs, output));
     }
 
     /*
     * This adds a shaped recipe to the list of crafting recipes, using the forge format, with a custom group.
     */
     public static void addOldShaped(String name, String group, ItemStack output, Object... input){
-        ShapedPrimer primer = CraftingHelper.parseShaped(input);
-        addRecipe(j++, new ShapedRecipes(new ResourceLocation(MODID, group).toString(), primer.width, primer.height,
-                primer.input, output).setRegistryName(MODID, name));
+        DeclaredShape shape = parseShape(input);
+        addRecipe(j++, declareShaped(new ResourceLocation(MODID, group).toString(), shape.width, shape.height,
+                shape.inputs, output).setRegistryName(MODID, name));
     }
 
     /*
@@ -166,27 +177,8 @@ public final class RecipeHelper{
             throw new UnsupportedOperationException(
                     "Attempted to add invalid shaped recipe.  Complain to the author of "+MODNAME);
         }
-        NonNullList<Ingredient> inputL = NonNullList.create();
-        for(int i = 0; i < input.length; i++){
-            Object k = input[i];
-            if(k instanceof String){
-                inputL.add(i, new OreIngredient((String)k));
-            }
-            else if(k instanceof ItemStack && !((ItemStack)k).isEmpty()){
-                inputL.add(i, Ingredient.fromStacks((ItemStack)k));
-            }
-            else if(k instanceof Item){
-                inputL.add(i, Ingredient.fromStacks(new ItemStack((Item)k)));
-            }
-            else if(k instanceof Block){
-                inputL.add(i, Ingredient.fromStacks(new ItemStack((Block)k)));
-            }
-            else{
-                inputL.add(i, Ingredient.EMPTY);
-            }
-        }
 
-        return new ShapedRecipes(MODID+":"+j, l, w, inputL, output);
+        return declareShaped(MODID+":"+j, l, w, toRawInputs(input), output);
     }
 
     public static ShapedRecipes genShaped(String group, ItemStack output, int l, int w, Object[] input){
@@ -200,29 +192,145 @@ public final class RecipeHelper{
             throw new UnsupportedOperationException(
                     "Attempted to add invalid shaped recipe.  Complain to the author of "+MODNAME);
         }
-        NonNullList<Ingredient> inputL = NonNullList.create();
-        for(int i = 0; i < input.length; i++){
-            Object k = input[i];
-            if(k instanceof String){
-                inputL.add(i, new OreIngredient((String)k));
-            }
-            else if(k instanceof ItemStack && !((ItemStack)k).isEmpty()){
-                inputL.add(i, Ingredient.fromStacks((ItemStack)k));
+
+        return declareShaped(group, l, w, toRawInputs(input), output);
+    }
+
+    /*
+     * Creates a shaped recipe whose ingredients stay empty until resolveDeclaredRecipes is called.  ShapedRecipes keeps the list it gets, so the recipe can already be handed out, like to the booklet.
+     */
+    private static ShapedRecipes declareShaped(String group, int width, int height, Object[] inputs, ItemStack output){
+        NonNullList<Ingredient> ingredients = NonNullList.withSize(inputs.length, Ingredient.EMPTY);
+        DECLARED_RECIPES.add(new DeclaredRecipe(inputs, ingredients));
+        return new ShapedRecipes(group, width, height, ingredients, output);
+    }
+
+    /*
+     * Reads a shaped recipe in the forge format like CraftingHelper.parseShaped, but leaves the inputs unresolved.
+     */
+    private static DeclaredShape parseShape(Object... input){
+        int index = 0;
+        //ShapedRecipes can't be mirrored, so the flag is ignored
+        if(input[index] instanceof Boolean){
+            index++;
+        }
+
+        List<String> rows = new ArrayList<>();
+        if(input[index] instanceof String[]){
+            rows.addAll(Arrays.asList((String[])input[index++]));
+        }
+        else{
+            while(index < input.length && input[index] instanceof String){
+                rows.add((String)input[index++]);
             }
-            else if(k instanceof Item){
-                inputL.add(i, Ingredient.fromStacks(new ItemStack((Item)k)));
+        }
+
+        Map<Character, Object> keys = new HashMap<>();
+        for(; index+1 < input.length; index += 2){
+            keys.put((Character)input[index], toRawInput(input[index+1], OreDictionary.WILDCARD_VALUE));
+        }
+
+        int width = rows.isEmpty() ? 0 : rows.get(0).length();
+        Object[] inputs = new Object[width*rows.size()];
+        for(int y = 0; y < rows.size(); y++){
+            String row = rows.get(y);
+            if(row.length() != width){
+                throw new UnsupportedOperationException(
+                        "Attempted to add invalid shaped recipe.  Complain to the author of "+MODNAME);
             }
-            else if(k instanceof Block){
-                inputL.add(i, Ingredient.fromStacks(new ItemStack((Block)k)));
+            for(int x = 0; x < width; x++){
+                char key = row.charAt(x);
+                if(key != ' '){
+                    if(!keys.containsKey(key)){
+                        throw new UnsupportedOperationException(
+                                "Attempted to add shaped recipe with undefined key '"+key+"'.  Complain to the author of "+MODNAME);
+                    }
+                    inputs[y*width+x] = keys.get(key);
+                }
             }
-            else{
-                inputL.add(i, Ingredient.EMPTY);
+        }
+        return new DeclaredShape(width, rows.size(), inputs);
+    }
+
+    private static Object[] toRawInputs(Object[] input){
+        Object[] inputs = new Object[input.length];
+        for(int i = 0; i < input.length; i++){
+            inputs[i] = toRawInput(input[i], 0);
+        }
+        return inputs;
+    }
+
+    /*
+     * Turns a recipe input into an ore name, ingredient, stack or null for nothing.  Items and blocks become stacks with the given meta.
+     */
+    private static Object toRawInput(Object k, int meta){
+        if(k instanceof String || k instanceof Ingredient){
+            return k;
+        }
+        else if(k instanceof ItemStack){
+            return ((ItemStack)k).isEmpty() ? null : k;
+        }
+        else if(k instanceof Item){
+            return new ItemStack((Item)k, 1, meta);
+        }
+        else if(k instanceof Block){
+            return new ItemStack((Block)k, 1, meta);
+        }
+        return null;
+    }
+
+    /*
+     * Creates the ingredients of all recipes that were declared since the last call.  This has to happen before the recipes are used.
+     */
+    public static void resolveDeclaredRecipes(){
+        for(DeclaredRecipe recipe : DECLARED_RECIPES){
+            for(int i = 0; i < recipe.inputs.length; i++){
+                recipe.ingredients.set(i, getIngredient(recipe.inputs[i]));
             }
         }
+        DECLARED_RECIPES.clear();
+    }
 
-        return new ShapedRecipes(group, l, w, inputL, output);
+    private static Ingredient getIngredient(Object input){
+        if(input instanceof String){
+            return getOreIngredient((String)input);
+        }
+        else if(input instanceof Ingredient){
+            return (Ingredient)input;
+        }
+        else if(input instanceof ItemStack){
+            return getStackIngredient((ItemStack)input);
+        }
+        return Ingredient.EMPTY;
     }
 
+    public static Ingredient getOreIngredient(String ore){
+        return ORE_INGREDIENTS.computeIfAbsent(ore, OreIngredient::new);
+    }
+
+    private static Ingredient getStackIngredient(ItemStack stack){
+        //Stacks with a size or NBT are displayed with those, so they can't be shared
+        if(stack.getCount() != 1 || stack.hasTagCompound()){
+            return Ingredient.fromStacks(stack.copy());
+        }
+
+        Int2ObjectMap<Ingredient> byMeta = STACK_INGREDIENTS.computeIfAbsent(stack.getItem(), item -> new Int2ObjectOpenHashMap<>());
+        Ingredient ingredient = byMeta.get(stack.getMetadata());
+        if(ingredient == null){
+            ingredient = Ingredient.fromStacks(stack.copy());
+            byMeta.put(stack.getMetadata(), ingredient);
+        }
+        return ingredient;
+    }
+
+    public static void clearIngredientCache(){
+        ORE_INGREDIENTS.clear();
+        STACK_INGREDIENTS.clear();
+    }
+
+    /*
+     * Shapeless recipes work out how they can be matched from their ingredients when they are created, so their input is resolved right away.
+     */
     public static NonNullList<Ingredient> createInput(Object[] input){
         if(input[0] instanceof List){
             input = ((List<?>)input[0]).toArray();
@@ -234,7 +342,7 @@ public final class RecipeHelper{
         for(int i = 0; i < input.length; i++){
             Object k = input[i];
             if(k instanceof String){
-                inputL.add(i, new OreIngredient((String)k));
+                inputL.add(i, getOreIngredient((String)k));
             }
             else if(k instanceof ItemStack){
                 inputL.add(i, Ingredient.fromStacks((ItemStack)k));
@@ -252,4 +360,28 @@ public final class RecipeHelper{
         }
         return inputL;
     }
+
+    private static class DeclaredShape{
+
+        final int width;
+        final int height;
+        final Object[] inputs;
+
+        DeclaredShape(int width, int height, Object[] inputs){
+            this.width = width;
+            this.height = height;
+            this.inputs = inputs;
+        }
+    }
+
+    private static class DeclaredRecipe{
+
+        final Object[] inputs;
+        final NonNullList<Ingredient> ingredients;
+
+        DeclaredRecipe(Object[] inputs, NonNullList<Ingredient> ingredients){
+            this.inputs = inputs;
+            this.ingredients = ingredients;
+        }
+    }
 }
\ No newline at end of file